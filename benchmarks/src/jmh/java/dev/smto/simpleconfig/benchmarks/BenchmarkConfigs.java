@@ -0,0 +1,84 @@
+package dev.smto.simpleconfig.benchmarks;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Shared fixtures for the benchmarks. The config classes themselves are generated by the generateBenchmarkConfigs task.
+ */
+public class BenchmarkConfigs {
+    public enum Shape {
+        // Mix of int, long, double, boolean and String fields
+        PRIMITIVES("Primitives", "1", "2"),
+        // Lists of 64 strings, every fourth field a map of 16 entries
+        COLLECTIONS("Collections", "[\"a\",\"b\"]", "[\"c\"]"),
+        // Records using a RecordCodecBuilder codec
+        RECORDS("Records", "{\"x\":1,\"label\":\"a\"}", "{\"x\":2,\"label\":\"b\"}");
+
+        private final String className;
+        // Two valid values for the first key, used to alternate between in set benchmarks
+        final String firstValue;
+        final String secondValue;
+
+        Shape(String className, String firstValue, String secondValue) {
+            this.className = className;
+            this.firstValue = firstValue;
+            this.secondValue = secondValue;
+        }
+
+        public Class<?> configClass(int size) {
+            try {
+                return Class.forName("dev.smto.simpleconfig.benchmarks.generated." + this.className + size);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("No generated config class for " + this + " with " + size + " keys!", e);
+            }
+        }
+
+        public Map<String, Codec<?>> codecOverrides(Class<?> configClass) {
+            var overrides = new HashMap<String, Codec<?>>();
+            if (this == Shape.RECORDS) {
+                for (Field field : configClass.getFields()) {
+                    overrides.put(field.getName(), Point.CODEC);
+                }
+            }
+            return overrides;
+        }
+    }
+
+    public record Point(int x, String label) {
+        public static final Codec<Point> CODEC = RecordCodecBuilder.create(
+                instance -> instance.group(
+                        Codec.INT.fieldOf("x").forGetter(Point::x),
+                        Codec.STRING.fieldOf("label").forGetter(Point::label)
+                ).apply(instance, Point::new));
+    }
+
+    public static List<String> list(int size) {
+        var list = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) list.add("element-" + i);
+        return list;
+    }
+
+    public static Map<String, Integer> map(int size) {
+        var map = new LinkedHashMap<String, Integer>(size);
+        for (int i = 0; i < size; i++) map.put("key-" + i, i);
+        return map;
+    }
+
+    public static Path createTempConfig() throws IOException {
+        return Files.createTempDirectory("simpleconfig-benchmark").resolve("benchmark.conf");
+    }
+
+    public static void delete(Path file) throws IOException {
+        try (var files = Files.list(file.getParent())) {
+            for (Path path : files.toList()) Files.deleteIfExists(path);
+        }
+        Files.deleteIfExists(file.getParent());
+    }
+}
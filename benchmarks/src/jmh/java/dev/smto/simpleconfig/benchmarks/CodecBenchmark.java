@@ -0,0 +1,51 @@
+package dev.smto.simpleconfig.benchmarks;
+
+import com.mojang.serialization.Codec;
+import dev.smto.simpleconfig.ConfigCodecs;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codec lookups by field, for simple and nested generic types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    public static int simple;
+    public static List<String> list;
+    public static Map<String, List<Map<String, Integer>>> nested;
+
+    private Field simpleField;
+    private Field listField;
+    private Field nestedField;
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchFieldException {
+        this.simpleField = CodecBenchmark.class.getField("simple");
+        this.listField = CodecBenchmark.class.getField("list");
+        this.nestedField = CodecBenchmark.class.getField("nested");
+    }
+
+    @Benchmark
+    public Codec<?> simple() {
+        return ConfigCodecs.get(this.simpleField);
+    }
+
+    @Benchmark
+    public Codec<?> list() {
+        return ConfigCodecs.get(this.listField);
+    }
+
+    @Benchmark
+    public Codec<?> nested() {
+        return ConfigCodecs.get(this.nestedField);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.smto.simpleconfig.benchmarks;
+
+import com.mojang.serialization.Codec;
+import dev.smto.simpleconfig.ConfigLoggers;
+import dev.smto.simpleconfig.ConfigTranscoders;
+import dev.smto.simpleconfig.SimpleConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The main SimpleConfig operations, for every shape and size of config class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigBenchmark {
+    @Param({"PRIMITIVES", "COLLECTIONS", "RECORDS"})
+    public BenchmarkConfigs.Shape shape;
+
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    private Path file;
+    private Class<?> configClass;
+    private Map<String, Codec<?>> codecOverrides;
+    private SimpleConfig config;
+    private String key;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.file = BenchmarkConfigs.createTempConfig();
+        this.configClass = this.shape.configClass(this.size);
+        this.codecOverrides = this.shape.codecOverrides(this.configClass);
+        this.config = new SimpleConfig(this.file, this.configClass, ConfigLoggers.NONE, ConfigTranscoders.JSON, this.codecOverrides);
+        this.key = this.configClass.getFields()[0].getName();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkConfigs.delete(this.file);
+    }
+
+    private String nextValue() {
+        this.toggle = !this.toggle;
+        return this.toggle ? this.shape.firstValue : this.shape.secondValue;
+    }
+
+    /**
+     * Creating an instance for an existing file, which reads and then writes it.
+     */
+    @Benchmark
+    public SimpleConfig construct() {
+        return new SimpleConfig(this.file, this.configClass, ConfigLoggers.NONE, ConfigTranscoders.JSON, this.codecOverrides);
+    }
+
+    @Benchmark
+    public void read() {
+        this.config.read();
+    }
+
+    @Benchmark
+    public void writeUnchanged() {
+        this.config.write();
+    }
+
+    @Benchmark
+    public void writeAfterSet() {
+        this.config.trySet(this.key, this.nextValue());
+        this.config.write();
+    }
+
+    @Benchmark
+    public boolean trySet() {
+        return this.config.trySet(this.key, this.nextValue());
+    }
+
+    @Benchmark
+    public Map<String, String> toMap() {
+        return this.config.toMap();
+    }
+}
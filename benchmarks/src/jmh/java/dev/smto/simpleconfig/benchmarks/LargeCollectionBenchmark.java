@@ -0,0 +1,76 @@
+package dev.smto.simpleconfig.benchmarks;
+
+import dev.smto.simpleconfig.ConfigLoggers;
+import dev.smto.simpleconfig.SimpleConfig;
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single very large list, written on one line compared to the multiline layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeCollectionBenchmark {
+    public static class SingleLine {
+        public static List<String> values;
+    }
+
+    public static class Multiline {
+        @ConfigAnnotations.Multiline
+        public static List<String> values;
+    }
+
+    @Param({"10000", "100000"})
+    public int elements;
+
+    @Param({"false", "true"})
+    public boolean multiline;
+
+    private Path file;
+    private SimpleConfig config;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.file = BenchmarkConfigs.createTempConfig();
+        SingleLine.values = BenchmarkConfigs.list(this.elements);
+        Multiline.values = BenchmarkConfigs.list(this.elements);
+        this.config = new SimpleConfig(this.file, this.configClass(), ConfigLoggers.NONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkConfigs.delete(this.file);
+    }
+
+    private Class<?> configClass() {
+        return this.multiline ? Multiline.class : SingleLine.class;
+    }
+
+    private List<String> values() {
+        return this.multiline ? Multiline.values : SingleLine.values;
+    }
+
+    /**
+     * A fresh instance decodes and encodes the whole value.
+     */
+    @Benchmark
+    public SimpleConfig load() {
+        return new SimpleConfig(this.file, this.configClass(), ConfigLoggers.NONE);
+    }
+
+    @Benchmark
+    public void saveAfterChange() {
+        this.values().set(0, "changed-" + this.counter++);
+        this.config.write();
+    }
+}
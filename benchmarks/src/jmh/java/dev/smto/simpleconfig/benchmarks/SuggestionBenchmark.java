@@ -0,0 +1,55 @@
+package dev.smto.simpleconfig.benchmarks;
+
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import dev.smto.simpleconfig.ConfigLoggers;
+import dev.smto.simpleconfig.MinecraftCommandHelper;
+import dev.smto.simpleconfig.SimpleConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key and value suggestions of the Minecraft command helper, as they are requested on every keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    // Matches every key, some keys and a single key
+    @Param({"", "k1", "k999"})
+    public String prefix;
+
+    private Path file;
+    private MinecraftCommandHelper helper;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.file = BenchmarkConfigs.createTempConfig();
+        var config = new SimpleConfig(this.file, BenchmarkConfigs.Shape.PRIMITIVES.configClass(this.size), ConfigLoggers.NONE);
+        this.helper = config.getMinecraftCommandHelper();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkConfigs.delete(this.file);
+    }
+
+    @Benchmark
+    public Suggestions keys() {
+        return this.helper.suggestMatchingKeys(new SuggestionsBuilder(this.prefix, 0)).join();
+    }
+
+    @Benchmark
+    public Suggestions values() {
+        return this.helper.suggestMatchingValues("k4", new SuggestionsBuilder("v", 0)).join();
+    }
+}
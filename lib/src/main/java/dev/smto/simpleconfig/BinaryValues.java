@@ -0,0 +1,184 @@
+package dev.smto.simpleconfig;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, typed binary encoding for plain config values: boxed primitives, strings, and lists/maps of those.
+ * Every value starts with a one byte tag, integers are zigzag varints and strings, lists and maps are length-prefixed.
+ * Decoding restores mutable ArrayLists and LinkedHashMaps.
+ */
+class BinaryValues {
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte CHAR = 8;
+    private static final byte STRING = 9;
+    private static final byte LIST = 10;
+    private static final byte MAP = 11;
+
+    /**
+     * Returns true if the value consists only of types this format can represent exactly.
+     */
+    static boolean isEncodable(Object value) {
+        if (value == null || value instanceof Boolean || value instanceof Byte || value instanceof Short || value instanceof Integer
+                || value instanceof Long || value instanceof Float || value instanceof Double || value instanceof Character || value instanceof String) {
+            return true;
+        }
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                if (!BinaryValues.isEncodable(element)) return false;
+            }
+            return true;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (var entry : map.entrySet()) {
+                if (!BinaryValues.isEncodable(entry.getKey()) || !BinaryValues.isEncodable(entry.getValue())) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static void write(ByteArrayOutputStream out, Object value) {
+        if (value == null) {
+            out.write(BinaryValues.NULL);
+        } else if (value instanceof Boolean b) {
+            out.write(BinaryValues.BOOLEAN);
+            out.write(b ? 1 : 0);
+        } else if (value instanceof Byte b) {
+            out.write(BinaryValues.BYTE);
+            out.write(b);
+        } else if (value instanceof Short s) {
+            out.write(BinaryValues.SHORT);
+            BinaryValues.writeVarLong(out, BinaryValues.zigzag(s));
+        } else if (value instanceof Integer i) {
+            out.write(BinaryValues.INT);
+            BinaryValues.writeVarLong(out, BinaryValues.zigzag(i));
+        } else if (value instanceof Long l) {
+            out.write(BinaryValues.LONG);
+            BinaryValues.writeVarLong(out, BinaryValues.zigzag(l));
+        } else if (value instanceof Float f) {
+            out.write(BinaryValues.FLOAT);
+            BinaryValues.writeFixed(out, Float.floatToRawIntBits(f), 4);
+        } else if (value instanceof Double d) {
+            out.write(BinaryValues.DOUBLE);
+            BinaryValues.writeFixed(out, Double.doubleToRawLongBits(d), 8);
+        } else if (value instanceof Character c) {
+            out.write(BinaryValues.CHAR);
+            BinaryValues.writeVarLong(out, c);
+        } else if (value instanceof String s) {
+            out.write(BinaryValues.STRING);
+            BinaryValues.writeString(out, s);
+        } else if (value instanceof List<?> list) {
+            out.write(BinaryValues.LIST);
+            BinaryValues.writeVarLong(out, list.size());
+            for (Object element : list) BinaryValues.write(out, element);
+        } else if (value instanceof Map<?, ?> map) {
+            out.write(BinaryValues.MAP);
+            BinaryValues.writeVarLong(out, map.size());
+            for (var entry : map.entrySet()) {
+                BinaryValues.write(out, entry.getKey());
+                BinaryValues.write(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    static Object read(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case BinaryValues.NULL -> null;
+            case BinaryValues.BOOLEAN -> in.get() != 0;
+            case BinaryValues.BYTE -> in.get();
+            case BinaryValues.SHORT -> (short) BinaryValues.unzigzag(BinaryValues.readVarLong(in));
+            case BinaryValues.INT -> (int) BinaryValues.unzigzag(BinaryValues.readVarLong(in));
+            case BinaryValues.LONG -> BinaryValues.unzigzag(BinaryValues.readVarLong(in));
+            case BinaryValues.FLOAT -> in.getFloat();
+            case BinaryValues.DOUBLE -> in.getDouble();
+            case BinaryValues.CHAR -> (char) BinaryValues.readVarLong(in);
+            case BinaryValues.STRING -> BinaryValues.readString(in);
+            case BinaryValues.LIST -> {
+                int size = BinaryValues.readLength(in);
+                var list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(BinaryValues.read(in));
+                yield list;
+            }
+            case BinaryValues.MAP -> {
+                int size = BinaryValues.readLength(in);
+                var map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                for (int i = 0; i < size; i++) map.put(BinaryValues.read(in), BinaryValues.read(in));
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag: " + tag);
+        };
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        BinaryValues.writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = BinaryValues.readLength(in);
+        if (in.hasArray()) {
+            var out = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return out;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static int readLength(ByteBuffer in) {
+        long length = BinaryValues.readVarLong(in);
+        if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("Invalid length: " + length);
+        return (int) length;
+    }
+
+    // Big-endian, matching ByteBuffer's default byte order
+    static void writeFixed(ByteArrayOutputStream out, long value, int bytes) {
+        for (int i = bytes - 1; i >= 0; i--) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
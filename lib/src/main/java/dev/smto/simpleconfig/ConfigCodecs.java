@@ -4,10 +4,13 @@ import com.mojang.serialization.Codec;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
-import java.util.HashMap;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConfigCodecs {
-    private static final HashMap<String, Codec<?>> BUILTIN = new HashMap<>();
+    private static final Map<String, Codec<?>> BUILTIN = new ConcurrentHashMap<>();
     static {{
         ConfigCodecs.BUILTIN.put("boolean", Codec.BOOL);
         ConfigCodecs.BUILTIN.put("string", Codec.STRING);
@@ -22,46 +25,156 @@ public class ConfigCodecs {
         ConfigCodecs.BUILTIN.put("character", Codec.STRING.xmap(s -> s.charAt(0), Object::toString));
     }}
 
-    public static void set(String simpleTypeName, Codec<?> codec) {
+    // The mappings as shipped, which tell unmodified codecs apart from replaced ones
+    private static final Map<String, Codec<?>> DEFAULTS = Map.copyOf(ConfigCodecs.BUILTIN);
+    private static final Map<String, Optional<Codec<?>>> DEFAULT_RESOLVED = new ConcurrentHashMap<>();
+    private static final String UNRESOLVED = "?";
+
+    // Composed codecs by full generic type and by codec type, so identical field types share one codec instance.
+    // Replaced as a whole whenever a mapping changes, which keeps concurrent lookups from caching stale codecs.
+    private static volatile Map<Type, Optional<Codec<?>>> byType = new ConcurrentHashMap<>();
+    private static volatile Map<String, Optional<Codec<?>>> resolved = new ConcurrentHashMap<>();
+    private static volatile int generation = 0;
+
+    public static synchronized void set(String simpleTypeName, Codec<?> codec) {
         ConfigCodecs.BUILTIN.put(simpleTypeName, codec);
+        ConfigCodecs.byType = new ConcurrentHashMap<>();
+        ConfigCodecs.resolved = new ConcurrentHashMap<>();
+        ConfigCodecs.generation++;
+    }
+
+    /**
+     * Changes every time a mapping is changed through set(), allowing derived data to detect that it is outdated.
+     */
+    static int generation() {
+        return ConfigCodecs.generation;
     }
 
     public static Codec<?> get(Field field) {
-        var type = field.getType().getSimpleName().toLowerCase();
-        if (type.contains("map")) {
-            ParameterizedType pt = (ParameterizedType) field.getGenericType();
-            Codec<?> c1 = null;
-            Codec<?> c2 = null;
-            try {
-                Class<?> gt1 = (Class<?>) pt.getActualTypeArguments()[0];
-                Class<?> gt2 = (Class<?>) pt.getActualTypeArguments()[1];
-                c1 = ConfigCodecs.BUILTIN.get(gt1.getSimpleName().toLowerCase());
-                c2 = ConfigCodecs.BUILTIN.get(gt2.getSimpleName().toLowerCase());
-            } catch (Throwable ignored) {}
-            if (c1 != null || c2 != null) {
+        return ConfigCodecs.get(field.getGenericType());
+    }
+
+    /**
+     * Returns the codec for the given type, or null if there is none.
+     * Generic arguments of maps, lists and pairs are resolved recursively, so types like List&lt;Map&lt;String, List&lt;Integer&gt;&gt;&gt; are supported.
+     */
+    public static Codec<?> get(Type type) {
+        var byType = ConfigCodecs.byType;
+        var cached = byType.get(type);
+        if (cached != null) return cached.orElse(null);
+        var codec = Optional.<Codec<?>>ofNullable(ConfigCodecs.forCodecType(ConfigCodecs.codecTypeOf(type)));
+        var existing = byType.putIfAbsent(type, codec);
+        return (existing != null ? existing : codec).orElse(null);
+    }
+
+    /**
+     * Returns what codecs are resolved from for the given type: its lowercase simple name, followed by the codec types of its
+     * type arguments in angle brackets, e.g. "list&lt;map&lt;string,integer&gt;&gt;". Wildcards are replaced by their upper bound,
+     * type variables and generic arrays by "?". Generated bindings carry the same string, computed at compile time.
+     */
+    static String codecTypeOf(Type type) {
+        if (type instanceof WildcardType wildcard) {
+            return ConfigCodecs.codecTypeOf(wildcard.getUpperBounds()[0]);
+        }
+        if (type instanceof Class<?> clazz) {
+            return clazz.getSimpleName().toLowerCase(Locale.ROOT);
+        }
+        if (!(type instanceof ParameterizedType pt) || !(pt.getRawType() instanceof Class<?> raw)) {
+            return ConfigCodecs.UNRESOLVED;
+        }
+        var arguments = pt.getActualTypeArguments();
+        var out = new StringBuilder(raw.getSimpleName().toLowerCase(Locale.ROOT));
+        if (arguments.length == 0) return out.toString();
+        out.append('<');
+        for (int i = 0; i < arguments.length; i++) {
+            out.append(i == 0 ? "" : ",").append(ConfigCodecs.codecTypeOf(arguments[i]));
+        }
+        return out.append('>').toString();
+    }
+
+    /**
+     * Returns the codec for the given codec type, or null if there is none.
+     */
+    static Codec<?> forCodecType(String codecType) {
+        return ConfigCodecs.lookup(codecType, false);
+    }
+
+    /**
+     * Returns true if the codec is the one the builtin mappings resolve for the codec type, i.e. neither an override
+     * nor composed from a replaced mapping. Only such codecs may be bypassed by the direct JSON and binary formats.
+     */
+    static boolean isBuiltin(String codecType, Codec<?> codec) {
+        return codec != null && codec == ConfigCodecs.lookup(codecType, true);
+    }
+
+    static boolean isBuiltin(Type type, Codec<?> codec) {
+        return codec != null && ConfigCodecs.isBuiltin(ConfigCodecs.codecTypeOf(type), codec);
+    }
+
+    private static Codec<?> lookup(String codecType, boolean defaults) {
+        var resolved = defaults ? ConfigCodecs.DEFAULT_RESOLVED : ConfigCodecs.resolved;
+        var cached = resolved.get(codecType);
+        if (cached != null) return cached.orElse(null);
+        var codec = Optional.<Codec<?>>ofNullable(ConfigCodecs.resolve(codecType, defaults));
+        var existing = resolved.putIfAbsent(codecType, codec);
+        return (existing != null ? existing : codec).orElse(null);
+    }
+
+    private static Codec<?> resolve(String codecType, boolean defaults) {
+        var mappings = defaults ? ConfigCodecs.DEFAULTS : ConfigCodecs.BUILTIN;
+        int open = codecType.indexOf('<');
+        if (open < 0) {
+            return codecType.equals(ConfigCodecs.UNRESOLVED) ? null : mappings.get(codecType);
+        }
+        var name = codecType.substring(0, open);
+        var arguments = ConfigCodecs.splitArguments(codecType, open);
+        if (!defaults) {
+            // Composing creates a new codec, so as long as nothing it is made of has been replaced the builtin instance is reused.
+            // This keeps unmodified codecs identical to the builtin ones, which is how isBuiltin() recognizes them.
+            boolean unchanged = ConfigCodecs.BUILTIN.get(name) == ConfigCodecs.DEFAULTS.get(name);
+            for (int i = 0; i < arguments.size() && unchanged; i++) {
+                unchanged = ConfigCodecs.isBuiltin(arguments.get(i), ConfigCodecs.lookup(arguments.get(i), false));
+            }
+            if (unchanged) return ConfigCodecs.lookup(codecType, true);
+        }
+        if (name.contains("map") && arguments.size() == 2) {
+            Codec<?> c1 = ConfigCodecs.lookup(arguments.get(0), defaults);
+            Codec<?> c2 = ConfigCodecs.lookup(arguments.get(1), defaults);
+            if (c1 != null && c2 != null) {
                 return Codec.unboundedMap(c1, c2);
             }
         }
-        if (type.contains("pair")) {
-            ParameterizedType pt = (ParameterizedType) field.getGenericType();
-            Codec<?> c1 = null;
-            Codec<?> c2 = null;
-            try {
-                Class<?> gt1 = (Class<?>) pt.getActualTypeArguments()[0];
-                Class<?> gt2 = (Class<?>) pt.getActualTypeArguments()[1];
-                c1 = ConfigCodecs.BUILTIN.get(gt1.getSimpleName().toLowerCase());
-                c2 = ConfigCodecs.BUILTIN.get(gt2.getSimpleName().toLowerCase());
-            } catch (Throwable ignored) {}
-            if (c1 != null || c2 != null) {
+        if (name.contains("pair") && arguments.size() == 2) {
+            Codec<?> c1 = ConfigCodecs.lookup(arguments.get(0), defaults);
+            Codec<?> c2 = ConfigCodecs.lookup(arguments.get(1), defaults);
+            if (c1 != null && c2 != null) {
                 return Codec.pair(c1, c2);
             }
         }
-        if (type.contains("list")) {
-            ParameterizedType pt = (ParameterizedType) field.getGenericType();
-            Class<?> gt = (Class<?>) pt.getActualTypeArguments()[0];
-            Codec<?> codec = ConfigCodecs.BUILTIN.get(gt.getSimpleName().toLowerCase());
+        if (name.contains("list") && arguments.size() == 1) {
+            Codec<?> codec = ConfigCodecs.lookup(arguments.get(0), defaults);
             if (codec != null) return codec.listOf();
         }
-        return ConfigCodecs.BUILTIN.getOrDefault(type, null);
+        return mappings.get(name);
+    }
+
+    /**
+     * Splits the top-level type arguments of a codec type, starting at its opening angle bracket.
+     */
+    private static List<String> splitArguments(String codecType, int open) {
+        var out = new ArrayList<String>();
+        int depth = 0;
+        int start = open + 1;
+        for (int i = start; i < codecType.length() - 1; i++) {
+            char c = codecType.charAt(i);
+            if (c == '<') depth++;
+            else if (c == '>') depth--;
+            else if (c == ',' && depth == 0) {
+                out.add(codecType.substring(start, i));
+                start = i + 1;
+            }
+        }
+        out.add(codecType.substring(start, codecType.length() - 1));
+        return out;
     }
 }
@@ -0,0 +1,61 @@
+package dev.smto.simpleconfig;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of the deltas exchanged through SimpleConfig#createDelta() and SimpleConfig#applyDelta().
+ * Entries are identified by their index in the schema and carry their encoded text, so the receiver decodes them through its own codecs.
+ * The schema fingerprint ensures that both sides agree on the indices and types, the epoch identifies the sender instance its version belongs to.
+ */
+class ConfigDelta {
+    private static final byte FORMAT_VERSION = 2;
+
+    record Entry(int index, String value) {}
+
+    record Contents(long epoch, long version, List<Entry> entries) {}
+
+    static byte[] write(int fingerprint, long epoch, long version, List<Integer> indices, String[] encoded) {
+        var out = new ByteArrayOutputStream();
+        out.write(ConfigDelta.FORMAT_VERSION);
+        BinaryValues.writeFixed(out, fingerprint, 4);
+        BinaryValues.writeFixed(out, epoch, 8);
+        BinaryValues.writeVarLong(out, version);
+        BinaryValues.writeVarLong(out, indices.size());
+        // Indices are ascending, so only the distance to the previous one is written
+        int previous = 0;
+        for (int index : indices) {
+            BinaryValues.writeVarLong(out, index - previous);
+            BinaryValues.writeString(out, encoded[index]);
+            previous = index;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a delta, returning null if it is malformed, in another format or was created for a schema with a different fingerprint.
+     */
+    static Contents read(ByteBuffer in, int fingerprint, int size) {
+        try {
+            if (in.get() != ConfigDelta.FORMAT_VERSION || in.getInt() != fingerprint) return null;
+            long epoch = in.getLong();
+            long version = BinaryValues.readVarLong(in);
+            int count = BinaryValues.readLength(in);
+            if (count > size) return null;
+            var entries = new ArrayList<Entry>(count);
+            long index = 0;
+            for (int i = 0; i < count; i++) {
+                index += BinaryValues.readVarLong(in);
+                if (index < 0 || index >= size) return null;
+                entries.add(new Entry((int) index, BinaryValues.readString(in)));
+            }
+            if (in.hasRemaining()) return null;
+            return new Contents(epoch, version, entries);
+        } catch (RuntimeException ignored) {
+            // Truncated or corrupted
+            return null;
+        }
+    }
+}
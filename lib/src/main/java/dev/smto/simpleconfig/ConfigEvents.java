@@ -0,0 +1,142 @@
+package dev.smto.simpleconfig;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder events for reloads, writes and slow codec calls.
+ * Nothing is recorded if the jdk.jfr module is not present in the runtime.
+ */
+class ConfigEvents {
+    private static final boolean AVAILABLE = ConfigEvents.isAvailable();
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ConfigEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ignored) {
+            return false;
+        }
+    }
+
+    // Events are begun before the work they time and committed after it, so their duration is the one JFR reports and filters by.
+    // They are passed around as Object, so callers never reference the jdk.jfr types. Null if events are not available or disabled.
+
+    static Object beginReload() {
+        return ConfigEvents.AVAILABLE ? Reload.start() : null;
+    }
+
+    static Object beginWrite() {
+        return ConfigEvents.AVAILABLE ? Write.start() : null;
+    }
+
+    static Object beginCodec() {
+        return ConfigEvents.AVAILABLE ? SlowCodec.start() : null;
+    }
+
+    static void reload(Object event, String file, String source, long bytes, int decoded) {
+        if (event != null) ((Reload) event).end(file, source, bytes, decoded);
+    }
+
+    static void write(Object event, String file, long bytes, boolean skipped) {
+        if (event != null) ((Write) event).end(file, bytes, skipped);
+    }
+
+    static void codec(Object event, String file, String key, ConfigMetrics.Operation operation) {
+        if (event != null) ((SlowCodec) event).end(file, key, operation.name());
+    }
+
+    @Name("dev.smto.simpleconfig.Reload")
+    @Label("Config Reload")
+    @Category("SimpleConfig")
+    @Description("Values were loaded from a config file or its cache")
+    static class Reload extends Event {
+        @Label("File")
+        String file;
+        @Label("Source")
+        @Description("Either \"file\" or \"cache\"")
+        String source;
+        @Label("Bytes Read")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+        @Label("Decoded Entries")
+        @Description("Entries whose values differed from the ones last applied")
+        int decoded;
+
+        static Reload start() {
+            var event = new Reload();
+            if (!event.isEnabled()) return null;
+            event.begin();
+            return event;
+        }
+
+        void end(String file, String source, long bytes, int decoded) {
+            this.end();
+            if (!this.shouldCommit()) return;
+            this.file = file;
+            this.source = source;
+            this.bytes = bytes;
+            this.decoded = decoded;
+            this.commit();
+        }
+    }
+
+    @Name("dev.smto.simpleconfig.Write")
+    @Label("Config Write")
+    @Category("SimpleConfig")
+    @Description("A config file was written, or the write was skipped because the file was unchanged")
+    static class Write extends Event {
+        @Label("File")
+        String file;
+        @Label("Bytes Written")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+        @Label("Skipped")
+        boolean skipped;
+
+        static Write start() {
+            var event = new Write();
+            if (!event.isEnabled()) return null;
+            event.begin();
+            return event;
+        }
+
+        void end(String file, long bytes, boolean skipped) {
+            this.end();
+            if (!this.shouldCommit()) return;
+            this.file = file;
+            this.bytes = bytes;
+            this.skipped = skipped;
+            this.commit();
+        }
+    }
+
+    @Name("dev.smto.simpleconfig.SlowCodec")
+    @Label("Slow Config Codec")
+    @Category("SimpleConfig")
+    @Description("Encoding or decoding a single config value took longer than the threshold, 1 ms unless configured otherwise")
+    @Threshold("1 ms")
+    static class SlowCodec extends Event {
+        @Label("File")
+        String file;
+        @Label("Key")
+        String key;
+        @Label("Operation")
+        String operation;
+
+        static SlowCodec start() {
+            var event = new SlowCodec();
+            if (!event.isEnabled()) return null;
+            event.begin();
+            return event;
+        }
+
+        void end(String file, String key, String operation) {
+            this.end();
+            if (!this.shouldCommit()) return;
+            this.file = file;
+            this.key = key;
+            this.operation = operation;
+            this.commit();
+        }
+    }
+}
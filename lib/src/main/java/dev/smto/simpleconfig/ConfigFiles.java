@@ -0,0 +1,191 @@
+package dev.smto.simpleconfig;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * File helpers shared by the config read and write paths.
+ */
+class ConfigFiles {
+    // Larger files are memory-mapped instead of being copied to the heap.
+    // Not on Windows, where a file cannot be replaced while a mapping of it has not been garbage collected yet.
+    private static final long MAP_THRESHOLD = File.separatorChar == '/' ? 1 << 20 : Long.MAX_VALUE;
+    // Still subject to the umask, like any file created without explicit permissions
+    private static final FileAttribute<Set<PosixFilePermission>> NEW_FILE_PERMISSIONS = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-rw-rw-"));
+
+    /**
+     * Identifies a version of a config file by its content hash and the file attributes observed alongside it.
+     */
+    record State(byte[] hash, long size, long lastModified) {
+        boolean matches(State other) {
+            return other != null && this.size == other.size && this.lastModified == other.lastModified && Arrays.equals(this.hash, other.hash);
+        }
+    }
+
+    /**
+     * Content that is written to a file piece by piece, instead of being built in memory first.
+     */
+    interface Content {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    static byte[] hash(byte[] content) {
+        return ConfigFiles.digest().digest(content);
+    }
+
+    /**
+     * Hashes the remaining content of the buffer, without changing its position.
+     */
+    static byte[] hash(ByteBuffer content) {
+        var digest = ConfigFiles.digest();
+        digest.update(content.duplicate());
+        return digest.digest();
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the whole file. Large files are memory-mapped, so their content is not copied to the heap.
+     */
+    static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > ConfigFiles.MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining() && channel.read(in) >= 0);
+            return in.flip();
+        }
+    }
+
+    /**
+     * Returns the state of the file at the given path, using an already known content hash, or null if the file does not exist.
+     */
+    static State stat(Path file, byte[] hash) {
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new State(hash, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the content to a temporary sibling of the target and moves it over the target, so the target is never left empty or missing.
+     */
+    static void writeAtomically(Path target, byte[] content, boolean sync) throws IOException {
+        Path temp = ConfigFiles.createTemporary(target);
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (sync) channel.force(true);
+            }
+            ConfigFiles.replace(temp, target, sync);
+            moved = true;
+        } finally {
+            if (!moved) ConfigFiles.discard(temp);
+        }
+    }
+
+    /**
+     * Streams the content as UTF-8 into a temporary sibling of the target, hashing it on the way, and moves it over the target.
+     * If the target is still in the given state, the content is hashed first and nothing is written if it is unchanged,
+     * so the content may be written out twice. Returns the hash of the content.
+     */
+    static byte[] writeAtomically(Path target, Content content, boolean sync, State current) throws IOException {
+        // Otherwise the target is replaced anyway, and hashing first would only cost a second pass
+        if (current != null && current.matches(ConfigFiles.stat(target, current.hash()))) {
+            var digest = ConfigFiles.digest();
+            var out = new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8));
+            content.writeTo(out);
+            out.flush();
+            byte[] hash = digest.digest();
+            if (Arrays.equals(current.hash(), hash)) return hash;
+        }
+        Path temp = ConfigFiles.createTemporary(target);
+        var digest = ConfigFiles.digest();
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                var out = new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(Channels.newOutputStream(channel), digest), StandardCharsets.UTF_8));
+                content.writeTo(out);
+                out.flush();
+                if (sync) channel.force(true);
+            }
+            ConfigFiles.replace(temp, target, sync);
+            moved = true;
+            return digest.digest();
+        } finally {
+            if (!moved) ConfigFiles.discard(temp);
+        }
+    }
+
+    /**
+     * Creates a new, uniquely named temporary sibling of the target, so concurrent writers and leftovers of a crash never share a file.
+     * If the target exists, the temporary file gets its permissions, so replacing the target does not change them.
+     */
+    private static Path createTemporary(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        String prefix = target.getFileName().toString() + ".";
+        if (target.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            // Temporary files are owner-only by default, the moved file should get the permissions of a regular new file
+            Path temp = Files.createTempFile(directory, prefix, ".tmp", ConfigFiles.NEW_FILE_PERMISSIONS);
+            try {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            } catch (NoSuchFileException ignored) {
+            } catch (IOException e) {
+                ConfigFiles.discard(temp);
+                throw e;
+            }
+            return temp;
+        }
+        return Files.createTempFile(directory, prefix, ".tmp");
+    }
+
+    /**
+     * Moves the temporary file over the target. If synced, the directory is synced as well, so the move itself survives a crash.
+     */
+    private static void replace(Path temp, Path target, boolean sync) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ignored) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (sync) {
+            // Directories cannot be opened or synced on every platform (such as Windows), the file content is synced either way
+            try (FileChannel directory = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private static void discard(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {}
+    }
+}
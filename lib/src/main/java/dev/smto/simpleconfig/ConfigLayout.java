@@ -0,0 +1,178 @@
+package dev.smto.simpleconfig;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Byte offsets and lengths of the value of every entry in a specific version of a config file, identified by its content hash.
+ * Used to patch changed values in place, leaving comments, key order and unknown keys untouched.
+ */
+class ConfigLayout {
+    final byte[] hash;
+    // -1 for entries that do not appear in the file
+    private final int[] offsets;
+    private final int[] lengths;
+    // Entries whose line only holds the key, without '=' separator. Their offset and length span the key instead of the value.
+    private final boolean[] keyOnly;
+
+    /**
+     * Replaces length bytes at the offset with the replacement, whose value part starts at valueStart and is valueLength bytes long.
+     * Entries missing from the file are appended as patches at the end of the file, with their key and header as part of the replacement.
+     * Lines that only hold the key of an entry are replaced by the key and value in the same way.
+     */
+    record Patch(int index, int offset, int length, byte[] replacement, int valueStart, int valueLength) {
+        Patch(int index, int offset, int length, byte[] replacement) {
+            this(index, offset, length, replacement, 0, replacement.length);
+        }
+    }
+
+    ConfigLayout(byte[] hash, int size) {
+        this.hash = hash;
+        this.offsets = new int[size];
+        this.lengths = new int[size];
+        this.keyOnly = new boolean[size];
+        Arrays.fill(this.offsets, -1);
+    }
+
+    /**
+     * Finds the values of all known keys in the content, without decoding them. For duplicate keys, the last one is used, as it is the one read() applies.
+     */
+    static ConfigLayout scan(ByteBuffer content, byte[] hash, Map<String, Integer> keyIndex) {
+        var layout = new ConfigLayout(hash, keyIndex.size());
+        ConfigParser parser = new ConfigParser(content);
+        while (parser.next()) {
+            if (parser.isBlank()) continue;
+            Integer index = keyIndex.get(parser.key());
+            if (index != null) layout.record(index, parser);
+        }
+        return layout;
+    }
+
+    /**
+     * Records the entry on the current line of the parser. Lines without '=' separator are recorded by their key, so patches replace them.
+     */
+    void record(int index, ConfigParser parser) {
+        this.keyOnly[index] = parser.valueOffset() < 0;
+        this.offsets[index] = this.keyOnly[index] ? parser.keyOffset() : parser.valueOffset();
+        this.lengths[index] = this.keyOnly[index] ? parser.keyLength() : parser.valueLength();
+    }
+
+    /**
+     * Returns the byte offset of the entry's value, or -1 if the entry does not appear in the file.
+     */
+    int offset(int index) {
+        return this.offsets[index];
+    }
+
+    int length(int index) {
+        return this.lengths[index];
+    }
+
+    /**
+     * Returns true if the line of the entry only holds its key, in which case offset and length span the key instead of the value.
+     */
+    boolean isKeyOnly(int index) {
+        return this.keyOnly[index];
+    }
+
+    /**
+     * Returns true if the value of the entry in the content is exactly the given encoded value.
+     */
+    boolean matches(ByteBuffer content, int index, byte[] value) {
+        if (this.offsets[index] < 0 || this.keyOnly[index] || this.lengths[index] != value.length) return false;
+        return content.slice(this.offsets[index], value.length).equals(ByteBuffer.wrap(value));
+    }
+
+    /**
+     * Returns the value of the entry as it appears in the content, or null if the entry does not appear in it or has no value.
+     */
+    String text(ByteBuffer content, int index) {
+        if (this.offsets[index] < 0 || this.keyOnly[index]) return null;
+        var bytes = new byte[this.lengths[index]];
+        content.get(this.offsets[index], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns true if every patch replaces a value with one of the same length, so they can be written at their positions directly.
+     */
+    static boolean fitsInPlace(List<Patch> patches) {
+        for (Patch patch : patches) {
+            if (patch.length() != patch.replacement().length) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the content with all patches applied. The patches must be sorted by offset and must not overlap.
+     */
+    static byte[] splice(ByteBuffer content, List<Patch> patches) {
+        int size = content.limit();
+        for (Patch patch : patches) {
+            size += patch.replacement().length - patch.length();
+        }
+        var out = new byte[size];
+        int read = 0;
+        int written = 0;
+        for (Patch patch : patches) {
+            content.get(read, out, written, patch.offset() - read);
+            written += patch.offset() - read;
+            System.arraycopy(patch.replacement(), 0, out, written, patch.replacement().length);
+            written += patch.replacement().length;
+            read = patch.offset() + patch.length();
+        }
+        content.get(read, out, written, content.limit() - read);
+        return out;
+    }
+
+    /**
+     * Returns the layout of the content after applying the patches, which must be sorted by offset.
+     */
+    ConfigLayout patched(byte[] hash, List<Patch> patches) {
+        var layout = new ConfigLayout(hash, this.offsets.length);
+        System.arraycopy(this.offsets, 0, layout.offsets, 0, this.offsets.length);
+        System.arraycopy(this.lengths, 0, layout.lengths, 0, this.lengths.length);
+        System.arraycopy(this.keyOnly, 0, layout.keyOnly, 0, this.keyOnly.length);
+        var sorted = patches.stream().sorted(Comparator.comparingInt(Patch::offset)).toList();
+        var starts = new int[sorted.size()];
+        // Difference in length of all patches up to and including each one
+        var shifts = new int[sorted.size()];
+        var patched = new boolean[this.offsets.length];
+        int shift = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            Patch patch = sorted.get(i);
+            starts[i] = patch.offset();
+            layout.offsets[patch.index()] = patch.offset() + shift + patch.valueStart();
+            layout.lengths[patch.index()] = patch.valueLength();
+            layout.keyOnly[patch.index()] = false;
+            patched[patch.index()] = true;
+            shift += patch.replacement().length - patch.length();
+            shifts[i] = shift;
+        }
+        for (int i = 0; i < this.offsets.length; i++) {
+            if (this.offsets[i] < 0 || patched[i]) continue;
+            // Values behind a patch move by the difference in length of all patches before them
+            int before = ConfigLayout.countBefore(starts, this.offsets[i]);
+            if (before > 0) layout.offsets[i] += shifts[before - 1];
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the number of sorted offsets lower than the given one.
+     */
+    private static int countBefore(int[] sorted, int offset) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < offset) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
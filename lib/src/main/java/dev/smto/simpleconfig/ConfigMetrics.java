@@ -0,0 +1,212 @@
+package dev.smto.simpleconfig;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counters and latency histograms for the I/O and codec work of a single config.
+ * Obtained through SimpleConfig#getMetrics(), all values are cumulative since the config was created.
+ * Encode and decode latencies only cover values that actually had to be encoded or decoded, not cached ones.
+ */
+public final class ConfigMetrics {
+    public enum Operation {
+        READ,
+        WRITE,
+        DECODE,
+        ENCODE
+    }
+
+    private final String fileName;
+    private final String[] keys;
+    private final Map<String, Integer> keyIndex;
+    private final Histogram[] operations = new Histogram[Operation.values().length];
+    // Per entry histograms are only allocated once the entry has been encoded or decoded
+    private final AtomicReferenceArray<Histogram> decodeLatency;
+    private final AtomicReferenceArray<Histogram> encodeLatency;
+    private final AtomicLongArray decodeFailures;
+    private final AtomicLongArray encodeFailures;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private volatile long lastReloadMillis = 0;
+
+    ConfigMetrics(String fileName, String[] keys, Map<String, Integer> keyIndex) {
+        this.fileName = fileName;
+        this.keys = keys;
+        this.keyIndex = keyIndex;
+        for (int i = 0; i < this.operations.length; i++) {
+            this.operations[i] = new Histogram();
+        }
+        this.decodeLatency = new AtomicReferenceArray<>(keys.length);
+        this.encodeLatency = new AtomicReferenceArray<>(keys.length);
+        this.decodeFailures = new AtomicLongArray(keys.length);
+        this.encodeFailures = new AtomicLongArray(keys.length);
+    }
+
+    /**
+     * Returns the latency histogram of the given operation over all entries.
+     */
+    public Histogram getLatency(Operation operation) {
+        return this.operations[operation.ordinal()];
+    }
+
+    /**
+     * Returns the encode or decode latency histogram of the config entry with the given key,
+     * or null if there is no such entry or it has not been encoded or decoded yet.
+     */
+    public Histogram getLatency(String key, Operation operation) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) return null;
+        return switch (operation) {
+            case DECODE -> this.decodeLatency.get(index);
+            case ENCODE -> this.encodeLatency.get(index);
+            default -> null;
+        };
+    }
+
+    public long getDecodeFailures() {
+        return ConfigMetrics.sum(this.decodeFailures);
+    }
+
+    public long getEncodeFailures() {
+        return ConfigMetrics.sum(this.encodeFailures);
+    }
+
+    /**
+     * Returns how often a value for the config entry with the given key could not be decoded, or 0 if there is no such entry.
+     */
+    public long getDecodeFailures(String key) {
+        Integer index = this.keyIndex.get(key);
+        return index == null ? 0 : this.decodeFailures.get(index);
+    }
+
+    /**
+     * Returns how often the value of the config entry with the given key could not be encoded, or 0 if there is no such entry.
+     */
+    public long getEncodeFailures(String key) {
+        Integer index = this.keyIndex.get(key);
+        return index == null ? 0 : this.encodeFailures.get(index);
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead.get();
+    }
+
+    /**
+     * Returns the number of bytes written to the config file. Writes that were skipped because the file was unchanged are not counted.
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten.get();
+    }
+
+    /**
+     * Returns the time in epoch milliseconds at which values were last loaded from the config file or its cache, or 0 if they never were.
+     */
+    public long getLastReloadMillis() {
+        return this.lastReloadMillis;
+    }
+
+    private static long sum(AtomicLongArray counters) {
+        long sum = 0;
+        for (int i = 0; i < counters.length(); i++) {
+            sum += counters.get(i);
+        }
+        return sum;
+    }
+
+    void recordRead(long nanos, long bytes, boolean reloaded) {
+        this.operations[Operation.READ.ordinal()].record(nanos);
+        this.bytesRead.addAndGet(bytes);
+        if (reloaded) this.lastReloadMillis = System.currentTimeMillis();
+    }
+
+    void recordWrite(long nanos, long bytes) {
+        this.operations[Operation.WRITE.ordinal()].record(nanos);
+        this.bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * Records a decode, committing the codec event begun before it, which JFR only keeps if it exceeded its threshold.
+     */
+    void recordDecode(int index, long nanos, Object event) {
+        this.operations[Operation.DECODE.ordinal()].record(nanos);
+        ConfigMetrics.histogram(this.decodeLatency, index).record(nanos);
+        ConfigEvents.codec(event, this.fileName, this.keys[index], Operation.DECODE);
+    }
+
+    void recordEncode(int index, long nanos, Object event) {
+        this.operations[Operation.ENCODE.ordinal()].record(nanos);
+        ConfigMetrics.histogram(this.encodeLatency, index).record(nanos);
+        ConfigEvents.codec(event, this.fileName, this.keys[index], Operation.ENCODE);
+    }
+
+    // Entries are encoded and decoded from several threads in parallel codec mode, the first one to create the histogram wins
+    private static Histogram histogram(AtomicReferenceArray<Histogram> histograms, int index) {
+        var histogram = histograms.get(index);
+        if (histogram != null) return histogram;
+        histograms.compareAndSet(index, null, new Histogram());
+        return histograms.get(index);
+    }
+
+    void decodeFailed(int index) {
+        this.decodeFailures.incrementAndGet(index);
+    }
+
+    void encodeFailed(int index) {
+        this.encodeFailures.incrementAndGet(index);
+    }
+
+    /**
+     * A latency histogram with power of two buckets, from 1 nanosecond up to about 4 minutes.
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 40;
+
+        private final long[] buckets = new long[Histogram.BUCKETS];
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+
+        synchronized void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            this.buckets[Math.min(Histogram.BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+            this.count++;
+            this.totalNanos += nanos;
+            this.maxNanos = Math.max(this.maxNanos, nanos);
+        }
+
+        public synchronized long getCount() {
+            return this.count;
+        }
+
+        public synchronized long getTotalNanos() {
+            return this.totalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return this.maxNanos;
+        }
+
+        public synchronized long getMeanNanos() {
+            return this.count == 0 ? 0 : this.totalNanos / this.count;
+        }
+
+        /**
+         * Returns an upper bound for the given percentile (between 0 and 100) of the recorded latencies, or 0 if nothing was recorded.
+         */
+        public synchronized long getPercentileNanos(double percentile) {
+            if (this.count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(this.count * Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for (int i = 0; i < Histogram.BUCKETS; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank) {
+                    // Bucket i holds latencies below 2^i nanoseconds
+                    return i == Histogram.BUCKETS - 1 ? this.maxNanos : Math.min(this.maxNanos, (1L << i) - 1);
+                }
+            }
+            return this.maxNanos;
+        }
+    }
+}
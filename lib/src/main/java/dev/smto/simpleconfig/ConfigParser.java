@@ -0,0 +1,156 @@
+package dev.smto.simpleconfig;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass tokenizer for the "key=value # comment" line format.
+ * Works directly on the UTF-8 bytes of a config file, so no regex, line list or split arrays are involved.
+ * All delimiters are ASCII, which can never appear inside a multibyte UTF-8 sequence.
+ */
+class ConfigParser {
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private int lineStart = 0;
+    private int lineEnd = 0;
+    private int keyStart = 0;
+    private int keyEnd = 0;
+    private int valueStart = -1;
+    private int valueEnd = -1;
+
+    ConfigParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Advances to the next line. Returns false once the end of the input is reached.
+     */
+    boolean next() {
+        if (this.position >= this.limit) return false;
+        this.lineStart = this.position;
+        int i = this.position;
+        while (i < this.limit) {
+            byte b = this.buffer.get(i);
+            if (b == '\n' || b == '\r') break;
+            i++;
+        }
+        this.lineEnd = i;
+        if (i < this.limit && this.buffer.get(i) == '\r') i++;
+        if (i < this.limit && this.buffer.get(i) == '\n') i++;
+        this.position = i;
+        this.tokenize();
+        return true;
+    }
+
+    private void tokenize() {
+        int contentEnd = this.lineEnd;
+        int separator = -1;
+        for (int i = this.lineStart; i < this.lineEnd; i++) {
+            byte b = this.buffer.get(i);
+            if (b == '#') {
+                contentEnd = i;
+                break;
+            }
+            if (b == '=' && separator < 0) separator = i;
+        }
+        if (separator < 0) {
+            this.keyStart = this.skipLeading(this.lineStart, contentEnd);
+            this.keyEnd = this.skipTrailing(this.keyStart, contentEnd);
+            this.valueStart = -1;
+            this.valueEnd = -1;
+            return;
+        }
+        this.keyStart = this.skipLeading(this.lineStart, separator);
+        this.keyEnd = this.skipTrailing(this.keyStart, separator);
+        this.valueStart = this.skipLeading(separator + 1, contentEnd);
+        this.valueEnd = this.skipTrailing(this.valueStart, contentEnd);
+    }
+
+    private int skipLeading(int from, int to) {
+        while (from < to && ConfigParser.isWhitespace(this.buffer.get(from))) from++;
+        return from;
+    }
+
+    private int skipTrailing(int from, int to) {
+        while (to > from && ConfigParser.isWhitespace(this.buffer.get(to - 1))) to--;
+        return to;
+    }
+
+    // Mirrors String#trim(), which strips every char <= U+0020
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Steps back to the start of the current line, so the next call to next() returns it again.
+     */
+    void rewind() {
+        this.position = this.lineStart;
+    }
+
+    /**
+     * Returns true if the current line starts with whitespace.
+     */
+    boolean isIndented() {
+        return this.lineStart < this.lineEnd && ConfigParser.isWhitespace(this.buffer.get(this.lineStart));
+    }
+
+    boolean isBlank() {
+        return this.keyStart == this.keyEnd;
+    }
+
+    boolean hasValue() {
+        return this.valueStart >= 0 && this.valueStart < this.valueEnd;
+    }
+
+    /**
+     * Returns the byte offset of the value in the buffer, or -1 if the line has no '=' separator.
+     */
+    int valueOffset() {
+        return this.valueStart;
+    }
+
+    /**
+     * Returns the length of the value in bytes, without surrounding whitespace and trailing comments.
+     */
+    int valueLength() {
+        return this.valueStart < 0 ? 0 : this.valueEnd - this.valueStart;
+    }
+
+    /**
+     * Returns the byte offset of the key in the buffer.
+     */
+    int keyOffset() {
+        return this.keyStart;
+    }
+
+    int keyLength() {
+        return this.keyEnd - this.keyStart;
+    }
+
+    String key() {
+        return this.decode(this.keyStart, this.keyEnd);
+    }
+
+    String value() {
+        return this.hasValue() ? this.decode(this.valueStart, this.valueEnd) : "";
+    }
+
+    String line() {
+        return this.decode(this.lineStart, this.lineEnd);
+    }
+
+    private String decode(int from, int to) {
+        if (from >= to) return "";
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        this.buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.smto.simpleconfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared daemon thread running delayed background work (such as write-behind flushes) for all configs,
+ * and a single shutdown hook flushing all configs in write-behind mode.
+ */
+class ConfigScheduler {
+    private static ScheduledExecutorService executor = null;
+    // Held weakly, so the shutdown hook does not keep configs that are no longer used from being collected.
+    // Configs with pending changes are still referenced by their scheduled flush until it ran.
+    private static final Set<SimpleConfig> flushOnShutdown = Collections.newSetFromMap(new WeakHashMap<>());
+    private static Thread shutdownHook = null;
+
+    private static synchronized ScheduledExecutorService executor() {
+        if (ConfigScheduler.executor == null) {
+            ConfigScheduler.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "SimpleConfig Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return ConfigScheduler.executor;
+    }
+
+    static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return ConfigScheduler.executor().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes the config when the JVM shuts down, until it is removed again.
+     */
+    static synchronized void addShutdownFlush(SimpleConfig config) {
+        ConfigScheduler.flushOnShutdown.add(config);
+        if (ConfigScheduler.shutdownHook == null) {
+            ConfigScheduler.shutdownHook = new Thread(ConfigScheduler::flushAll, "SimpleConfig Flush");
+            Runtime.getRuntime().addShutdownHook(ConfigScheduler.shutdownHook);
+        }
+    }
+
+    static synchronized void removeShutdownFlush(SimpleConfig config) {
+        ConfigScheduler.flushOnShutdown.remove(config);
+    }
+
+    private static void flushAll() {
+        List<SimpleConfig> configs;
+        // Copied first, as flushing locks each config, which may be waiting for this lock itself
+        synchronized (ConfigScheduler.class) {
+            configs = new ArrayList<>(ConfigScheduler.flushOnShutdown);
+        }
+        for (SimpleConfig config : configs) {
+            try {
+                config.flush();
+            } catch (RuntimeException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package dev.smto.simpleconfig;
+
+import com.mojang.serialization.Codec;
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import dev.smto.simpleconfig.api.ConfigBinding;
+import dev.smto.simpleconfig.api.ConfigDecoration;
+import dev.smto.simpleconfig.api.ConfigEntry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled structure of a config class: its entries with resolved codecs and accessors, the key index and the rendered decorations.
+ * Schemas are immutable and cached per config class and set of codec overrides, so they are shared by every SimpleConfig using them.
+ */
+public final class ConfigSchema {
+    // Held by the config class itself, so a schema lives as long as its class. As schemas reference their class and codecs,
+    // codec overrides from another class loader stay reachable until the config class is unloaded.
+    private static final ClassValue<Map<Map<String, Codec<?>>, ConfigSchema>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Map<String, Codec<?>>, ConfigSchema> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> configClass;
+    private final int codecGeneration;
+    private final List<ConfigEntry<?>> entries;
+    private final Map<String, Integer> keyIndex;
+    private final String[] headers;
+    private final String[] typeNames;
+    private final boolean[] builtinCodecs;
+    private final JsonValueFormat[] jsonFormats;
+    private final PrimitiveFormat[] primitiveFormats;
+    private final boolean[] multiline;
+    private final boolean sidecarCache;
+    private final boolean patchWrites;
+    private final boolean parallelCodecs;
+    private final int fingerprint;
+
+    private ConfigSchema(Class<?> configClass, Map<String, Codec<?>> codecOverrides) {
+        this.configClass = configClass;
+        this.codecGeneration = ConfigCodecs.generation();
+        var entries = new ArrayList<ConfigEntry<?>>();
+        var headers = new ArrayList<String>();
+        var typeNames = new ArrayList<String>();
+        var builtinCodecs = new ArrayList<Boolean>();
+        var jsonFormats = new ArrayList<JsonValueFormat>();
+        var primitiveFormats = new ArrayList<PrimitiveFormat>();
+        var multiline = new ArrayList<Boolean>();
+        var binding = ConfigSchema.findBinding(configClass);
+        if (binding != null) {
+            for (int i = 0; i < binding.size(); i++) {
+                String key = binding.key(i);
+                String codecType = binding.codecType(i);
+                Codec<?> codec;
+                if (codecOverrides.containsKey(key)) {
+                    codec = codecOverrides.get(key);
+                } else {
+                    codec = ConfigCodecs.forCodecType(codecType);
+                }
+                entries.add(new ConfigEntry<>(key, binding.decoration(i), null, codec, binding.accessor(i)));
+                headers.add(binding.header(i));
+                typeNames.add(binding.typeName(i));
+                boolean builtin = !codecOverrides.containsKey(key) && ConfigCodecs.isBuiltin(codecType, codec);
+                var format = builtin ? JsonValueFormat.forName(binding.valueFormat(i)) : null;
+                builtinCodecs.add(builtin);
+                jsonFormats.add(format);
+                primitiveFormats.add(format != null ? PrimitiveFormat.of(binding.typeName(i)) : null);
+                multiline.add(format != null && format.isCollection() && binding.isMultiline(i));
+            }
+        } else {
+            for (Field field : configClass.getFields()) {
+                String section = null;
+                var sectionAnnotation = field.getAnnotation(ConfigAnnotations.Section.class);
+                if (sectionAnnotation != null) section = sectionAnnotation.section();
+
+                String comment = null;
+                var commentAnnotation = field.getAnnotation(ConfigAnnotations.Comment.class);
+                if (commentAnnotation != null) comment = commentAnnotation.comment();
+
+                Codec<?> codec;
+                if (codecOverrides.containsKey(field.getName())) {
+                    codec = codecOverrides.get(field.getName());
+                } else {
+                    codec = ConfigCodecs.get(field);
+                }
+
+                try {
+                    var entry = new ConfigEntry<>(field.getName(), new ConfigDecoration(section, comment), field, codec);
+                    entries.add(entry);
+                    headers.add(EntryState.renderHeader(entry.decorations()));
+                    typeNames.add(field.getGenericType().getTypeName());
+                } catch (Throwable x) {
+                    throw new RuntimeException(x);
+                }
+                boolean builtin = !codecOverrides.containsKey(field.getName()) && ConfigCodecs.isBuiltin(field.getGenericType(), codec);
+                var format = builtin ? JsonValueFormat.of(field.getGenericType()) : null;
+                builtinCodecs.add(builtin);
+                jsonFormats.add(format);
+                primitiveFormats.add(format != null ? PrimitiveFormat.of(field.getType()) : null);
+                multiline.add(format != null && format.isCollection() && field.isAnnotationPresent(ConfigAnnotations.Multiline.class));
+            }
+        }
+        var keyIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < entries.size(); i++) {
+            keyIndex.put(entries.get(i).key(), i);
+        }
+        this.entries = Collections.unmodifiableList(entries);
+        this.keyIndex = Collections.unmodifiableMap(keyIndex);
+        // String#hashCode is specified, so the fingerprint is the same in every JVM
+        var keysAndTypes = new ArrayList<String>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            keysAndTypes.add(entries.get(i).key());
+            keysAndTypes.add(typeNames.get(i));
+        }
+        this.fingerprint = keysAndTypes.hashCode();
+        this.headers = headers.toArray(new String[0]);
+        this.typeNames = typeNames.toArray(new String[0]);
+        // Decided per entry: only entries whose codec is an override or composed from a replaced mapping lose the fast paths
+        this.builtinCodecs = new boolean[builtinCodecs.size()];
+        this.multiline = new boolean[builtinCodecs.size()];
+        for (int i = 0; i < this.builtinCodecs.length; i++) {
+            this.builtinCodecs[i] = builtinCodecs.get(i);
+            this.multiline[i] = multiline.get(i);
+        }
+        this.jsonFormats = jsonFormats.toArray(new JsonValueFormat[0]);
+        this.primitiveFormats = primitiveFormats.toArray(new PrimitiveFormat[0]);
+        this.sidecarCache = configClass.isAnnotationPresent(ConfigAnnotations.SidecarCache.class);
+        this.patchWrites = configClass.isAnnotationPresent(ConfigAnnotations.PatchWrites.class);
+        this.parallelCodecs = configClass.isAnnotationPresent(ConfigAnnotations.ParallelCodecs.class);
+    }
+
+    /**
+     * Returns the generated binding of the config class, or null if the annotation processor did not generate one.
+     */
+    private static ConfigBinding findBinding(Class<?> configClass) {
+        String name = configClass.getName();
+        int packageEnd = name.lastIndexOf('.');
+        String bindingName = name.substring(0, packageEnd + 1) + ConfigBinding.PREFIX + name.substring(packageEnd + 1).replace('$', '_');
+        try {
+            var bindingClass = Class.forName(bindingName, true, configClass.getClassLoader());
+            return (ConfigBinding) MethodHandles.publicLookup().findConstructor(bindingClass, MethodType.methodType(void.class)).invoke();
+        } catch (ClassNotFoundException ignored) {
+            return null;
+        } catch (Throwable e) {
+            throw new RuntimeException("Could not load generated config binding \"" + bindingName + "\"!", e);
+        }
+    }
+
+    /**
+     * Returns the schema of the given config class without codec overrides.
+     */
+    public static ConfigSchema of(Class<?> configClass) {
+        return ConfigSchema.of(configClass, Map.of());
+    }
+
+    /**
+     * Returns the schema of the given config class, compiling it on first use.
+     * @param configClass Class holding the static fields defining the config
+     * @param codecOverrides Assign custom codecs for specific field names
+     */
+    public static ConfigSchema of(Class<?> configClass, Map<String, Codec<?>> codecOverrides) {
+        var schemas = ConfigSchema.CACHE.get(configClass);
+        var key = Collections.unmodifiableMap(new HashMap<>(codecOverrides));
+        int generation = ConfigCodecs.generation();
+        var schema = schemas.get(key);
+        if (schema != null && schema.codecGeneration == generation) return schema;
+        // Compiled at most once per key, schemas compiled before a builtin codec mapping was changed are stale
+        return schemas.compute(key, (k, existing) -> existing != null && existing.codecGeneration == generation ? existing : new ConfigSchema(configClass, k));
+    }
+
+    public Class<?> getConfigClass() {
+        return this.configClass;
+    }
+
+    public List<ConfigEntry<?>> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Returns the index of the entry with the given key, or -1 if there is no such entry.
+     */
+    public int indexOf(String key) {
+        Integer index = this.keyIndex.get(key);
+        return index == null ? -1 : index;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns a hash of all keys and field types in order, which identifies schemas whose entry indices and values are interchangeable.
+     */
+    public int fingerprint() {
+        return this.fingerprint;
+    }
+
+    Map<String, Integer> keyIndex() {
+        return this.keyIndex;
+    }
+
+    String header(int index) {
+        return this.headers[index];
+    }
+
+    /**
+     * Returns the generic type of the entry's field, in the format of Type#getTypeName().
+     */
+    String typeName(int index) {
+        return this.typeNames[index];
+    }
+
+    /**
+     * Returns true if the entry uses an unmodified builtin codec, rather than an override or a replaced mapping.
+     */
+    boolean hasBuiltinCodec(int index) {
+        return this.builtinCodecs[index];
+    }
+
+    /**
+     * Returns the direct JSON format of the entry, or null if its values have to go through its codec.
+     */
+    JsonValueFormat jsonFormat(int index) {
+        return this.jsonFormats[index];
+    }
+
+    /**
+     * Returns the primitive format of the entry, or null if it is not backed by a primitive field with a builtin codec.
+     */
+    PrimitiveFormat primitiveFormat(int index) {
+        return this.primitiveFormats[index];
+    }
+
+    /**
+     * Returns true if the entry is a collection annotated with ConfigAnnotations.Multiline.
+     */
+    boolean isMultiline(int index) {
+        return this.multiline[index];
+    }
+
+    /**
+     * Returns true if the config class is annotated with ConfigAnnotations.SidecarCache.
+     */
+    public boolean usesSidecarCache() {
+        return this.sidecarCache;
+    }
+
+    /**
+     * Returns true if the config class is annotated with ConfigAnnotations.PatchWrites.
+     */
+    public boolean usesPatchWrites() {
+        return this.patchWrites;
+    }
+
+    /**
+     * Returns true if the config class is annotated with ConfigAnnotations.ParallelCodecs.
+     */
+    public boolean usesParallelCodecs() {
+        return this.parallelCodecs;
+    }
+}
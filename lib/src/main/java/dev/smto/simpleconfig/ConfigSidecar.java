@@ -0,0 +1,82 @@
+package dev.smto.simpleconfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary cache stored next to a config file, holding the encoded text and, where possible, the typed value of every entry.
+ * It records the hash of the text file it was created from, the schema fingerprint and the type of every entry,
+ * and is only used while all of those still match.
+ */
+class ConfigSidecar {
+    private static final int MAGIC = 0x53434647; // "SCFG"
+    private static final byte FORMAT_VERSION = 2;
+
+    /**
+     * A cached entry. If the value is not typed, it has to be decoded from the text using the entry's codec.
+     */
+    record Entry(String key, String type, String text, boolean typed, Object value) {}
+
+    /**
+     * The entries of a sidecar, along with the fingerprint of the schema and the state of the text file it was created from and its own size in bytes.
+     */
+    record Contents(int fingerprint, ConfigFiles.State state, List<Entry> entries, long size) {}
+
+    static Path pathOf(Path configFile) {
+        return configFile.resolveSibling(configFile.getFileName().toString() + ".cache");
+    }
+
+    /**
+     * Reads the sidecar, returning null if it does not exist or is not in the current format.
+     */
+    static Contents read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        ByteBuffer in = ConfigFiles.read(file);
+        try {
+            if (in.getInt() != ConfigSidecar.MAGIC || in.get() != ConfigSidecar.FORMAT_VERSION) return null;
+            int fingerprint = in.getInt();
+            long textSize = in.getLong();
+            long textModified = in.getLong();
+            byte[] hash = new byte[BinaryValues.readLength(in)];
+            in.get(hash);
+            int count = BinaryValues.readLength(in);
+            var entries = new ArrayList<Entry>(count);
+            for (int i = 0; i < count; i++) {
+                String key = BinaryValues.readString(in);
+                String type = BinaryValues.readString(in);
+                String text = BinaryValues.readString(in);
+                boolean typed = in.get() != 0;
+                entries.add(new Entry(key, type, text, typed, typed ? BinaryValues.read(in) : null));
+            }
+            return new Contents(fingerprint, new ConfigFiles.State(hash, textSize, textModified), entries, in.limit());
+        } catch (RuntimeException ignored) {
+            // Truncated or corrupted
+            return null;
+        }
+    }
+
+    static void write(Path file, int fingerprint, ConfigFiles.State state, List<Entry> entries) throws IOException {
+        var out = new ByteArrayOutputStream();
+        BinaryValues.writeFixed(out, ConfigSidecar.MAGIC, 4);
+        out.write(ConfigSidecar.FORMAT_VERSION);
+        BinaryValues.writeFixed(out, fingerprint, 4);
+        BinaryValues.writeFixed(out, state.size(), 8);
+        BinaryValues.writeFixed(out, state.lastModified(), 8);
+        BinaryValues.writeVarLong(out, state.hash().length);
+        out.writeBytes(state.hash());
+        BinaryValues.writeVarLong(out, entries.size());
+        for (Entry entry : entries) {
+            BinaryValues.writeString(out, entry.key());
+            BinaryValues.writeString(out, entry.type());
+            BinaryValues.writeString(out, entry.text());
+            out.write(entry.typed() ? 1 : 0);
+            if (entry.typed()) BinaryValues.write(out, entry.value());
+        }
+        ConfigFiles.writeAtomically(file, out.toByteArray(), false);
+    }
+}
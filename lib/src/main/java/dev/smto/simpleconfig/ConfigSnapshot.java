@@ -0,0 +1,51 @@
+package dev.smto.simpleconfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of the encoded values of a config at a specific version.
+ * A new version is created whenever values are changed through read(), trySet() or written with different values.
+ */
+public final class ConfigSnapshot {
+    private final long version;
+    private final Map<String, Integer> keyIndex;
+    private final String[] encoded;
+    private final Map<String, String> map;
+
+    ConfigSnapshot(long version, Map<String, Integer> keyIndex, String[] encoded) {
+        this.version = version;
+        this.keyIndex = keyIndex;
+        this.encoded = encoded;
+        var map = new HashMap<String, String>();
+        for (var entry : keyIndex.entrySet()) {
+            map.put(entry.getKey(), encoded[entry.getValue()]);
+        }
+        this.map = Collections.unmodifiableMap(map);
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the encoded value of the config entry with the given key, or null if there is no such entry.
+     */
+    public String getEncoded(String key) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) return null;
+        return this.encoded[index];
+    }
+
+    String[] encodedValues() {
+        return this.encoded;
+    }
+
+    /**
+     * Returns an unmodifiable map of all config keys and their encoded values.
+     */
+    public Map<String, String> asMap() {
+        return this.map;
+    }
+}
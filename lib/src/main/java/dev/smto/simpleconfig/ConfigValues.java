@@ -0,0 +1,91 @@
+package dev.smto.simpleconfig;
+
+import java.util.*;
+
+/**
+ * An immutable, consistent set of the decoded values of a config.
+ * Obtained through SimpleConfig#values(), it never shows a mix of values from before and after a reload or set.
+ * Collection values are unmodifiable copies.
+ */
+public final class ConfigValues {
+    private final Map<String, Integer> keyIndex;
+    private final Object[] values;
+
+    ConfigValues(Map<String, Integer> keyIndex, Object[] values) {
+        this.keyIndex = keyIndex;
+        this.values = values;
+    }
+
+    /**
+     * Returns the value of the config entry with the given key, or null if there is no such entry.
+     */
+    public Object get(String key) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) return null;
+        return this.values[index];
+    }
+
+    public <T> T get(String key, Class<T> type) {
+        return type.cast(this.get(key));
+    }
+
+    public String getString(String key) {
+        return (String) this.require(key);
+    }
+
+    public boolean getBoolean(String key) {
+        return (Boolean) this.require(key);
+    }
+
+    public int getInt(String key) {
+        return ((Number) this.require(key)).intValue();
+    }
+
+    public long getLong(String key) {
+        return ((Number) this.require(key)).longValue();
+    }
+
+    public float getFloat(String key) {
+        return ((Number) this.require(key)).floatValue();
+    }
+
+    public double getDouble(String key) {
+        return ((Number) this.require(key)).doubleValue();
+    }
+
+    private Object require(String key) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) throw new IllegalArgumentException("Unknown config key \"" + key + "\"!");
+        return this.values[index];
+    }
+
+    Object get(int index) {
+        return this.values[index];
+    }
+
+    Object[] copyValues() {
+        return this.values.clone();
+    }
+
+    /**
+     * Returns an unmodifiable copy of collection values, so they cannot change after being published.
+     */
+    static Object freeze(Object value) {
+        if (value instanceof List<?> list) {
+            var copy = new ArrayList<>(list.size());
+            for (Object element : list) copy.add(ConfigValues.freeze(element));
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof Set<?> set) {
+            var copy = new LinkedHashSet<>(set.size());
+            for (Object element : set) copy.add(ConfigValues.freeze(element));
+            return Collections.unmodifiableSet(copy);
+        }
+        if (value instanceof Map<?, ?> map) {
+            var copy = new LinkedHashMap<>(map.size());
+            for (var entry : map.entrySet()) copy.put(ConfigValues.freeze(entry.getKey()), ConfigValues.freeze(entry.getValue()));
+            return Collections.unmodifiableMap(copy);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+package dev.smto.simpleconfig;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directory of a config file and reloads the config on a daemon thread after external modifications.
+ * Bursts of events are coalesced into a single reload once the file has been quiet for the debounce interval.
+ */
+class ConfigWatcher implements Runnable {
+    private final SimpleConfig config;
+    private final Path file;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    ConfigWatcher(SimpleConfig config, Path file, long debounceMillis) throws IOException {
+        this.config = config;
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this, "SimpleConfig Watcher (" + this.file.getFileName() + ")");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        this.thread.start();
+    }
+
+    void stop() {
+        try {
+            this.watchService.close();
+        } catch (IOException ignored) {}
+        this.thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (!this.isRelevant(this.watchService.take())) continue;
+                // Wait until no further events arrive within the debounce interval
+                while (true) {
+                    WatchKey key = this.watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS);
+                    if (key == null) break;
+                    this.isRelevant(key);
+                }
+                this.config.reloadIfChanged();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {}
+    }
+
+    private boolean isRelevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
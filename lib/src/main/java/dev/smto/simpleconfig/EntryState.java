@@ -0,0 +1,194 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigChange;
+import dev.smto.simpleconfig.api.ConfigDecoration;
+import dev.smto.simpleconfig.api.ConfigEntry;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Per-instance bookkeeping for a single config entry: its rendered decoration header and the last encoded value.
+ * The snapshots of the last encoded and the last applied value are shared whenever they are equal, so collections are held at most once besides the live value.
+ */
+class EntryState {
+    // Marks values whose changes cannot be detected by comparison, these are always re-encoded
+    private static final Object UNTRACKED = new Object();
+
+    final ConfigEntry<?> entry;
+    final String header;
+    // Direct JSON encoder and decoder, null if values have to go through the codec and transcoder
+    final JsonValueFormat format;
+    // Set for primitive fields, whose values are then tracked as raw bits instead of boxed values
+    final PrimitiveFormat primitive;
+    // Multiline values are read and written element by element, and are never copied for change tracking
+    final boolean multiline;
+
+    private String encoded = null;
+    private Object encodedSnapshot = EntryState.UNTRACKED;
+    private long encodedBits = 0;
+    private boolean dirty = true;
+
+    private String appliedRaw = null;
+    private Object appliedSnapshot = EntryState.UNTRACKED;
+    private long appliedBits = 0;
+    private List<Consumer<ConfigChange>> listeners = null;
+
+    EntryState(ConfigEntry<?> entry, String header, JsonValueFormat format, PrimitiveFormat primitive, boolean multiline) {
+        this.entry = entry;
+        this.header = header;
+        this.format = format;
+        this.primitive = primitive;
+        this.multiline = multiline;
+    }
+
+    void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Returns the cached encoded value if the entry has not been changed since it was last encoded, otherwise null.
+     */
+    String cached(Object currentValue) {
+        if (this.primitive != null) return this.cached(this.primitive.bits(currentValue));
+        if (this.dirty || this.encoded == null || this.encodedSnapshot == EntryState.UNTRACKED) return null;
+        return Objects.equals(this.encodedSnapshot, currentValue) ? this.encoded : null;
+    }
+
+    String cached(long currentBits) {
+        if (this.dirty || this.encoded == null) return null;
+        return this.encodedBits == currentBits ? this.encoded : null;
+    }
+
+    void cache(Object value, String encoded) {
+        if (this.primitive != null) {
+            this.cache(this.primitive.bits(value), encoded);
+            return;
+        }
+        this.encoded = encoded;
+        if (this.multiline) {
+            this.encodedSnapshot = EntryState.UNTRACKED;
+        } else if (this.appliedSnapshot != EntryState.UNTRACKED && Objects.equals(this.appliedSnapshot, value)) {
+            // Snapshots are never modified, so the value just applied and encoded is only copied once
+            this.encodedSnapshot = this.appliedSnapshot;
+        } else {
+            this.encodedSnapshot = EntryState.snapshot(value);
+            // The field has been changed since it was applied, so the applied value can no longer match it
+            this.appliedRaw = null;
+            this.appliedSnapshot = EntryState.UNTRACKED;
+        }
+        this.dirty = false;
+    }
+
+    void cache(long bits, String encoded) {
+        this.encoded = encoded;
+        this.encodedBits = bits;
+        this.dirty = false;
+    }
+
+    /**
+     * Returns true if the raw value is the one that was last applied and the field has not been changed since.
+     */
+    boolean isApplied(String raw, Object currentValue) {
+        if (this.primitive != null) return this.isApplied(raw, this.primitive.bits(currentValue));
+        if (this.appliedRaw == null || this.appliedSnapshot == EntryState.UNTRACKED) return false;
+        return this.appliedRaw.equals(raw) && Objects.equals(this.appliedSnapshot, currentValue);
+    }
+
+    boolean isApplied(String raw, long currentBits) {
+        return this.appliedRaw != null && this.appliedBits == currentBits && this.appliedRaw.equals(raw);
+    }
+
+    void applied(String raw, Object value) {
+        if (this.primitive != null) {
+            this.applied(raw, this.primitive.bits(value));
+            return;
+        }
+        this.appliedRaw = raw;
+        if (this.multiline) {
+            this.appliedSnapshot = EntryState.UNTRACKED;
+        } else if (this.encodedSnapshot != EntryState.UNTRACKED && Objects.equals(this.encodedSnapshot, value)) {
+            this.appliedSnapshot = this.encodedSnapshot;
+        } else {
+            this.appliedSnapshot = EntryState.snapshot(value);
+            // Only compared while the entry is not dirty, which it is until the next encode replaces it
+            this.encodedSnapshot = EntryState.UNTRACKED;
+        }
+        this.dirty = true;
+    }
+
+    void applied(String raw, long bits) {
+        this.appliedRaw = raw;
+        this.appliedBits = bits;
+        this.dirty = true;
+    }
+
+    void addListener(Consumer<ConfigChange> listener) {
+        if (this.listeners == null) this.listeners = new CopyOnWriteArrayList<>();
+        this.listeners.add(listener);
+    }
+
+    void removeListener(Consumer<ConfigChange> listener) {
+        if (this.listeners != null) this.listeners.remove(listener);
+    }
+
+    List<Consumer<ConfigChange>> listeners() {
+        return this.listeners == null ? List.of() : this.listeners;
+    }
+
+    /**
+     * Copies collections (recursively) so later in-place modifications can be detected. Immutable leaf values are kept as they are.
+     */
+    private static Object snapshot(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>) {
+            return value;
+        }
+        if (value instanceof List<?> list) {
+            var copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                Object snapshot = EntryState.snapshot(element);
+                if (snapshot == EntryState.UNTRACKED) return EntryState.UNTRACKED;
+                copy.add(snapshot);
+            }
+            return copy;
+        }
+        if (value instanceof Set<?> set) {
+            var copy = new LinkedHashSet<>(set.size());
+            for (Object element : set) {
+                Object snapshot = EntryState.snapshot(element);
+                if (snapshot == EntryState.UNTRACKED) return EntryState.UNTRACKED;
+                copy.add(snapshot);
+            }
+            return copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            var copy = new LinkedHashMap<>(map.size());
+            for (var e : map.entrySet()) {
+                Object key = EntryState.snapshot(e.getKey());
+                Object snapshot = EntryState.snapshot(e.getValue());
+                if (key == EntryState.UNTRACKED || snapshot == EntryState.UNTRACKED) return EntryState.UNTRACKED;
+                copy.put(key, snapshot);
+            }
+            return copy;
+        }
+        return EntryState.UNTRACKED;
+    }
+
+    static String renderHeader(ConfigDecoration decorations) {
+        if (decorations == null) return "";
+        var out = new StringBuilder();
+        if (decorations.section() != null) {
+            String sectionLength = "=".repeat(decorations.section().length());
+            out.append("# ").append(sectionLength).append("\n");
+            out.append("# ").append(decorations.section()).append("\n");
+            out.append("# ").append(sectionLength).append("\n");
+        }
+        if (decorations.comment() != null) {
+            for (String s : decorations.comment().split("\n")) {
+                out.append("# ").append(s).append("\n");
+            }
+        }
+        return out.toString();
+    }
+}
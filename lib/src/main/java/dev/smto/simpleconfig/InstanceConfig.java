@@ -0,0 +1,241 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigLogger;
+import dev.smto.simpleconfig.api.ConfigTranscoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+/**
+ * A config backed by an instance of a record or plain class instead of static fields, e.g. for per-player or per-world settings.
+ * All structure and codecs are shared through the InstanceSchema, each copy only holds its values:
+ * primitives as raw bits in a long array, everything else in an object array.
+ * Collection values are shared with the objects passed to and returned from this config, so they should be replaced instead of modified in place.
+ */
+@SuppressWarnings("unused")
+public final class InstanceConfig<T> {
+    private static final long[] NO_PRIMITIVES = new long[0];
+    private static final Object[] NO_REFERENCES = new Object[0];
+
+    private final InstanceSchema<T> schema;
+    private final Path file;
+    private final ConfigLogger logger;
+    private final ConfigTranscoder<?> transcoder;
+    private final long[] primitives;
+    private final Object[] references;
+
+    /**
+     * Creates a new instance of InstanceConfig and reads the config file, if it exists.
+     * @param file Target path, which will be used without modification, so make sure it is valid!
+     * @param schema Schema of the record or class, check InstanceSchema#of
+     * @param defaults Instance holding the values used for keys missing from the file
+     */
+    public InstanceConfig(Path file, InstanceSchema<T> schema, T defaults) {
+        this(file, schema, defaults, ConfigLoggers.NONE, ConfigTranscoders.JSON);
+    }
+
+    /**
+     * Creates a new instance of InstanceConfig and reads the config file, if it exists.
+     * @param file Target path, which will be used without modification, so make sure it is valid!
+     * @param schema Schema of the record or class, check InstanceSchema#of
+     * @param defaults Instance holding the values used for keys missing from the file
+     * @param logger Logger to use, check the ConfigLoggers class
+     */
+    public InstanceConfig(Path file, InstanceSchema<T> schema, T defaults, ConfigLogger logger) {
+        this(file, schema, defaults, logger, ConfigTranscoders.JSON);
+    }
+
+    /**
+     * Creates a new instance of InstanceConfig and reads the config file, if it exists.
+     * The file is only written if it does not exist yet or is missing keys, so loading many unchanged copies does not write anything.
+     * @param file Target path, which will be used without modification, so make sure it is valid!
+     * @param schema Schema of the record or class, check InstanceSchema#of
+     * @param defaults Instance holding the values used for keys missing from the file
+     * @param logger Logger to use, check the ConfigLoggers class
+     * @param transcoder Transcoder to use, default is ConfigTranscoders.JSON
+     */
+    public InstanceConfig(Path file, InstanceSchema<T> schema, T defaults, ConfigLogger logger, ConfigTranscoder<?> transcoder) {
+        this.schema = schema;
+        this.file = file;
+        this.logger = logger;
+        this.transcoder = transcoder;
+        this.primitives = schema.primitiveCount() == 0 ? InstanceConfig.NO_PRIMITIVES : new long[schema.primitiveCount()];
+        this.references = schema.referenceCount() == 0 ? InstanceConfig.NO_REFERENCES : new Object[schema.referenceCount()];
+        schema.extract(defaults, this.primitives, this.references);
+        if (!this.readFile()) this.write();
+    }
+
+    /**
+     * Reads and parses the config file, replacing the values of all keys present in it.
+     */
+    public synchronized void read() {
+        this.readFile();
+    }
+
+    /**
+     * Returns true if the file exists and every key was read from it.
+     */
+    private boolean readFile() {
+        if (!Files.exists(this.file)) return false;
+        ByteBuffer content;
+        try {
+            content = ConfigFiles.read(this.file);
+        } catch (IOException e) {
+            this.logger.warn("Could not read config file \""+this.file.getFileName().toString()+"\"! Default values will be used!");
+            return false;
+        }
+        var present = new boolean[this.schema.size()];
+        int count = 0;
+        boolean success = true;
+        ConfigParser parser = new ConfigParser(content);
+        while (parser.next()) {
+            if (parser.isBlank()) continue;
+            int index = this.schema.indexOf(parser.key());
+            if (index < 0) continue;
+            if (!parser.hasValue()) {
+                this.logger.error("Failed to parse config file line: \""+parser.line()+"\"!");
+                continue;
+            }
+            if (this.schema.decode(index, parser.value(), this.primitives, this.references, this.transcoder)) {
+                if (!present[index]) count++;
+                present[index] = true;
+            } else {
+                this.logger.warn("Failed to decode \""+parser.value()+"\" for config entry \""+this.schema.key(index)+"\"! This could indicate a broken codec or input.");
+                success = false;
+            }
+        }
+        if (!success) this.logger.warn("Could not fully read config file \""+this.file.getFileName().toString()+"\"!");
+        return count == present.length;
+    }
+
+    /**
+     * Writes all values to the target file.
+     */
+    public synchronized void write() {
+        var out = new StringBuilder();
+        for (int i = 0; i < this.schema.size(); i++) {
+            out.append(this.schema.header(i));
+            try {
+                String encoded = this.schema.encode(i, this.primitives, this.references, this.transcoder, this.logger);
+                out.append(this.schema.key(i)).append("=").append(encoded).append("\n");
+            } catch (Throwable ignored) {
+                this.logger.warn("Failed to encode field: \""+this.schema.key(i)+"\"! This could indicate a broken codec or input.");
+                out.append("\n");
+            }
+        }
+        try {
+            Files.createDirectories(this.file.getParent());
+            ConfigFiles.writeAtomically(this.file, out.toString().getBytes(StandardCharsets.UTF_8), false);
+        } catch (Exception ignored) {
+            this.logger.error("Could not write config file \""+ this.file.getFileName().toString() +"\"! Changes will not be saved!");
+        }
+    }
+
+    /**
+     * Returns a new record or object holding the current values.
+     */
+    public synchronized T get() {
+        return this.schema.create(this.primitives, this.references);
+    }
+
+    /**
+     * Replaces all values with the ones of the given record or object. Does not write the config file.
+     */
+    public synchronized void set(T value) {
+        this.schema.extract(value, this.primitives, this.references);
+    }
+
+    /**
+     * Tries to set the value of the config entry with the given key to the given value. Does not write the config file.
+     * Returns true if the value was set, false if it was not found or could not be decoded.
+     */
+    public synchronized boolean trySet(String key, String value) {
+        int index = this.schema.indexOf(key);
+        if (index < 0) return false;
+        return this.schema.decode(index, value, this.primitives, this.references, this.transcoder);
+    }
+
+    /**
+     * Returns the current value of the config entry with the given key, or null if there is no such entry.
+     */
+    public synchronized Object get(String key) {
+        int index = this.schema.indexOf(key);
+        if (index < 0) return null;
+        return this.schema.value(index, this.primitives, this.references);
+    }
+
+    // Read values directly, without boxing if the type matches exactly.
+    // They throw an IllegalArgumentException if there is no entry with the given key.
+
+    public synchronized boolean getBoolean(String key) {
+        int index = this.index(key);
+        if (this.schema.storage(index) == PrimitiveFormat.BOOLEAN) return this.primitives[this.schema.slot(index)] != 0;
+        return (Boolean) this.schema.value(index, this.primitives, this.references);
+    }
+
+    public synchronized int getInt(String key) {
+        int index = this.index(key);
+        if (this.schema.storage(index) == PrimitiveFormat.INT) return (int) this.primitives[this.schema.slot(index)];
+        return ((Number) this.schema.value(index, this.primitives, this.references)).intValue();
+    }
+
+    public synchronized long getLong(String key) {
+        int index = this.index(key);
+        if (this.schema.storage(index) == PrimitiveFormat.LONG) return this.primitives[this.schema.slot(index)];
+        return ((Number) this.schema.value(index, this.primitives, this.references)).longValue();
+    }
+
+    public synchronized float getFloat(String key) {
+        int index = this.index(key);
+        if (this.schema.storage(index) == PrimitiveFormat.FLOAT) return Float.intBitsToFloat((int) this.primitives[this.schema.slot(index)]);
+        return ((Number) this.schema.value(index, this.primitives, this.references)).floatValue();
+    }
+
+    public synchronized double getDouble(String key) {
+        int index = this.index(key);
+        if (this.schema.storage(index) == PrimitiveFormat.DOUBLE) return Double.longBitsToDouble(this.primitives[this.schema.slot(index)]);
+        return ((Number) this.schema.value(index, this.primitives, this.references)).doubleValue();
+    }
+
+    private int index(String key) {
+        int index = this.schema.indexOf(key);
+        if (index < 0) throw new IllegalArgumentException("Unknown config key \"" + key + "\"!");
+        return index;
+    }
+
+    /**
+     * Returns the encoded value of the config entry with the given key, or null if there is no such entry.
+     */
+    public synchronized String getEncoded(String key) {
+        int index = this.schema.indexOf(key);
+        if (index < 0) return null;
+        return this.schema.encode(index, this.primitives, this.references, this.transcoder, this.logger);
+    }
+
+    /**
+     * Creates a HashMap of all config keys and their encoded values. Changing the HashMap will not change the values in the config.
+     */
+    public synchronized HashMap<String,String> toMap() {
+        var map = new HashMap<String, String>();
+        for (int i = 0; i < this.schema.size(); i++) {
+            try {
+                map.put(this.schema.key(i), this.schema.encode(i, this.primitives, this.references, this.transcoder, this.logger));
+            } catch (Throwable ignored) {
+                this.logger.warn("Could not get value of config entry \""+this.schema.key(i)+"\"!");
+            }
+        }
+        return map;
+    }
+
+    public InstanceSchema<T> getSchema() {
+        return this.schema;
+    }
+
+    public Path getFile() {
+        return this.file;
+    }
+}
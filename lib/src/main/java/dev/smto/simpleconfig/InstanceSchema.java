@@ -0,0 +1,317 @@
+package dev.smto.simpleconfig;
+
+import com.mojang.serialization.Codec;
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import dev.smto.simpleconfig.api.ConfigDecoration;
+import dev.smto.simpleconfig.api.ConfigLogger;
+import dev.smto.simpleconfig.api.ConfigTranscoder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled structure of a config type whose values live in instances instead of static fields:
+ * the public non-static fields of a plain class, or the components of a record.
+ * Like ConfigSchema, it is immutable and cached per type and set of codec overrides, and shared by every InstanceConfig using it.
+ */
+public final class InstanceSchema<T> {
+    private static final ClassValue<Map<Map<String, Codec<?>>, InstanceSchema<?>>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Map<String, Codec<?>>, InstanceSchema<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<T> type;
+    private final int codecGeneration;
+    private final String[] keys;
+    private final Map<String, Integer> keyIndex;
+    private final Codec<?>[] codecs;
+    private final String[] headers;
+    // Direct JSON and primitive formats, null where values have to go through the codec
+    private final JsonValueFormat[] jsonFormats;
+    private final PrimitiveFormat[] primitiveFormats;
+    // Set for primitive types, whose values are stored as bits in the primitive value array of an instance
+    private final PrimitiveFormat[] storageFormats;
+    // Index of each entry in either the primitive or the reference value array of an instance
+    private final int[] slots;
+    private final int primitiveCount;
+    private final int referenceCount;
+    // (Object)Object getters, (Object, Object)void setters for plain classes
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+    // (Object[])Object canonical constructor for records, ()Object no-arg constructor for plain classes
+    private final MethodHandle constructor;
+
+    private InstanceSchema(Class<T> type, Map<String, Codec<?>> codecOverrides) {
+        this.type = type;
+        this.codecGeneration = ConfigCodecs.generation();
+        var lookup = MethodHandles.lookup();
+        var members = new ArrayList<Field>();
+        var genericTypes = new ArrayList<Type>();
+        var getters = new ArrayList<MethodHandle>();
+        var setters = new ArrayList<MethodHandle>();
+        try {
+            if (type.isRecord()) {
+                var components = type.getRecordComponents();
+                var parameterTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    RecordComponent component = components[i];
+                    var accessor = component.getAccessor();
+                    accessor.trySetAccessible();
+                    // Annotations targeting fields end up on the private field backing the component
+                    members.add(type.getDeclaredField(component.getName()));
+                    genericTypes.add(component.getGenericType());
+                    getters.add(lookup.unreflect(accessor).asType(MethodType.methodType(Object.class, Object.class)));
+                    parameterTypes[i] = component.getType();
+                }
+                var constructor = type.getDeclaredConstructor(parameterTypes);
+                constructor.trySetAccessible();
+                this.constructor = lookup.unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                this.setters = null;
+            } else {
+                for (Field field : type.getFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)) continue;
+                    field.trySetAccessible();
+                    members.add(field);
+                    genericTypes.add(field.getGenericType());
+                    getters.add(lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class)));
+                    setters.add(lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class)));
+                }
+                MethodHandle constructor = null;
+                try {
+                    var noArgs = type.getDeclaredConstructor();
+                    noArgs.trySetAccessible();
+                    constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+                } catch (NoSuchMethodException ignored) {}
+                this.constructor = constructor;
+                this.setters = setters.toArray(new MethodHandle[0]);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not compile instance schema of \"" + type.getName() + "\"!", e);
+        }
+
+        int size = members.size();
+        this.keys = new String[size];
+        this.codecs = new Codec<?>[size];
+        this.headers = new String[size];
+        this.jsonFormats = new JsonValueFormat[size];
+        this.primitiveFormats = new PrimitiveFormat[size];
+        this.storageFormats = new PrimitiveFormat[size];
+        this.slots = new int[size];
+        this.getters = getters.toArray(new MethodHandle[0]);
+        var keyIndex = new HashMap<String, Integer>();
+        int primitives = 0;
+        int references = 0;
+        for (int i = 0; i < size; i++) {
+            var member = members.get(i);
+            String key = member.getName();
+            this.keys[i] = key;
+            keyIndex.put(key, i);
+
+            String section = null;
+            var sectionAnnotation = member.getAnnotation(ConfigAnnotations.Section.class);
+            if (sectionAnnotation != null) section = sectionAnnotation.section();
+            String comment = null;
+            var commentAnnotation = member.getAnnotation(ConfigAnnotations.Comment.class);
+            if (commentAnnotation != null) comment = commentAnnotation.comment();
+            this.headers[i] = EntryState.renderHeader(new ConfigDecoration(section, comment));
+
+            // Primitive values are always stored as bits, even if they are encoded by an overridden codec
+            this.storageFormats[i] = PrimitiveFormat.of(member.getType());
+            this.slots[i] = this.storageFormats[i] != null ? primitives++ : references++;
+
+            boolean builtin = !codecOverrides.containsKey(key);
+            this.codecs[i] = builtin ? ConfigCodecs.get(genericTypes.get(i)) : codecOverrides.get(key);
+            // Only codecs the builtin mappings resolve are bypassed, not overrides or codecs composed from a replaced mapping
+            if (builtin && ConfigCodecs.isBuiltin(genericTypes.get(i), this.codecs[i])) {
+                this.jsonFormats[i] = JsonValueFormat.of(genericTypes.get(i));
+                if (this.jsonFormats[i] != null) this.primitiveFormats[i] = this.storageFormats[i];
+            }
+        }
+        this.keyIndex = Collections.unmodifiableMap(keyIndex);
+        this.primitiveCount = primitives;
+        this.referenceCount = references;
+    }
+
+    /**
+     * Returns the schema of the given record or plain class without codec overrides.
+     */
+    public static <T> InstanceSchema<T> of(Class<T> type) {
+        return InstanceSchema.of(type, Map.of());
+    }
+
+    /**
+     * Returns the schema of the given record or plain class, compiling it on first use.
+     * @param type Record, or class whose public non-static, non-final fields define the config
+     * @param codecOverrides Assign custom codecs for specific field names
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> InstanceSchema<T> of(Class<T> type, Map<String, Codec<?>> codecOverrides) {
+        var schemas = InstanceSchema.CACHE.get(type);
+        var key = Collections.unmodifiableMap(new HashMap<>(codecOverrides));
+        int generation = ConfigCodecs.generation();
+        var schema = schemas.get(key);
+        if (schema != null && schema.codecGeneration == generation) return (InstanceSchema<T>) schema;
+        // Compiled at most once per key, schemas compiled before a builtin codec mapping was changed are stale
+        return (InstanceSchema<T>) schemas.compute(key, (k, existing) -> existing != null && existing.codecGeneration == generation ? existing : new InstanceSchema<>(type, k));
+    }
+
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    public List<String> getKeys() {
+        return List.of(this.keys);
+    }
+
+    /**
+     * Returns the index of the entry with the given key, or -1 if there is no such entry.
+     */
+    public int indexOf(String key) {
+        Integer index = this.keyIndex.get(key);
+        return index == null ? -1 : index;
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    String key(int index) {
+        return this.keys[index];
+    }
+
+    String header(int index) {
+        return this.headers[index];
+    }
+
+    int primitiveCount() {
+        return this.primitiveCount;
+    }
+
+    int referenceCount() {
+        return this.referenceCount;
+    }
+
+    /**
+     * Returns the format the entry's value is stored with in the primitive value array, or null if it is stored as a reference.
+     */
+    PrimitiveFormat storage(int index) {
+        return this.storageFormats[index];
+    }
+
+    int slot(int index) {
+        return this.slots[index];
+    }
+
+    Object value(int index, long[] primitives, Object[] references) {
+        var storage = this.storageFormats[index];
+        return storage != null ? storage.box(primitives[this.slots[index]]) : references[this.slots[index]];
+    }
+
+    void store(int index, Object value, long[] primitives, Object[] references) {
+        var storage = this.storageFormats[index];
+        if (storage != null) primitives[this.slots[index]] = storage.bits(value);
+        else references[this.slots[index]] = value;
+    }
+
+    /**
+     * Copies all values of the given instance into the value arrays.
+     */
+    void extract(T instance, long[] primitives, Object[] references) {
+        for (int i = 0; i < this.getters.length; i++) {
+            try {
+                this.store(i, (Object) this.getters[i].invokeExact((Object) instance), primitives, references);
+            } catch (Throwable e) {
+                throw new RuntimeException("Could not read \"" + this.keys[i] + "\" of \"" + this.type.getName() + "\"!", e);
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance holding the values of the value arrays.
+     */
+    T create(long[] primitives, Object[] references) {
+        try {
+            if (this.setters == null) {
+                var arguments = new Object[this.keys.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = this.value(i, primitives, references);
+                }
+                return this.type.cast((Object) this.constructor.invokeExact(arguments));
+            }
+            if (this.constructor == null) throw new IllegalStateException("\"" + this.type.getName() + "\" has no constructor without arguments!");
+            Object instance = (Object) this.constructor.invokeExact();
+            for (int i = 0; i < this.setters.length; i++) {
+                this.setters[i].invokeExact(instance, this.value(i, primitives, references));
+            }
+            return this.type.cast(instance);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Could not create instance of \"" + this.type.getName() + "\"!", e);
+        }
+    }
+
+    /**
+     * Encodes the value of the entry at the given index, using the direct JSON format or the codec.
+     */
+    @SuppressWarnings("unchecked")
+    <O> String encode(int index, long[] primitives, Object[] references, ConfigTranscoder<O> transcoder, ConfigLogger logger) {
+        if (this.jsonFormats[index] != null && transcoder == ConfigTranscoders.JSON) {
+            if (this.primitiveFormats[index] != null) return this.primitiveFormats[index].format(primitives[this.slots[index]]);
+            String encoded = this.jsonFormats[index].encode(references[this.slots[index]]);
+            if (encoded != null) return encoded;
+        }
+        var codec = (Codec<Object>) this.codecs[index];
+        if (codec == null) return "";
+        return transcoder.processEncoderOutput(codec.encodeStart(transcoder.getOps(), this.value(index, primitives, references)).resultOrPartial(logger::warn));
+    }
+
+    /**
+     * Decodes the raw value for the entry at the given index, using the direct JSON format or the codec, and stores it in the value arrays.
+     * Returns false, leaving the value arrays unchanged, if the value could not be decoded.
+     */
+    <O> boolean decode(int index, String raw, long[] primitives, Object[] references, ConfigTranscoder<O> transcoder) {
+        if (this.jsonFormats[index] != null && transcoder == ConfigTranscoders.JSON) {
+            if (this.primitiveFormats[index] != null) {
+                long bits = this.primitiveFormats[index].parse(raw);
+                if (bits != PrimitiveFormat.INVALID) {
+                    primitives[this.slots[index]] = bits;
+                    return true;
+                }
+            } else {
+                Object decoded = this.jsonFormats[index].decode(raw);
+                if (decoded != null) {
+                    references[this.slots[index]] = decoded;
+                    return true;
+                }
+            }
+        }
+        var codec = this.codecs[index];
+        if (codec == null) return false;
+        var parsed = transcoder.processDecoderInput(raw);
+        if (parsed == null) return false;
+        try {
+            Object value = codec.parse(transcoder.getOps(), parsed).resultOrPartial().orElseThrow();
+            // codec.parse always returns an immutable list
+            if (value instanceof List && !(value instanceof ArrayList)) {
+                value = new ArrayList<>((List<?>) value);
+            }
+            this.store(index, value, primitives, references);
+            return true;
+        } catch (Throwable ignored) {
+            return false;
+        }
+    }
+}
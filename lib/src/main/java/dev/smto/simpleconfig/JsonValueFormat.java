@@ -0,0 +1,566 @@
+package dev.smto.simpleconfig;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.*;
+
+/**
+ * Streams values of the builtin types (primitives, strings, chars and lists/maps of those) directly from and to JSON text,
+ * without building a JsonElement tree or going through DataResult.
+ * Produces exactly what Gson and the builtin codecs produce. Anything outside the plain, canonical JSON form is rejected,
+ * so that the caller can fall back to the codec, which then decides how lenient input is handled.
+ * Decoded lists and maps are mutable ArrayLists and LinkedHashMaps, which can be assigned to fields without copying.
+ */
+final class JsonValueFormat {
+    private enum Kind { BOOLEAN, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, CHAR, STRING, LIST, MAP }
+
+    // Same escapes as Gson's JsonWriter without HTML escaping
+    private static final String[] REPLACEMENT_CHARS = new String[128];
+    static {{
+        for (int i = 0; i <= 0x1f; i++) {
+            JsonValueFormat.REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+        }
+        JsonValueFormat.REPLACEMENT_CHARS['"'] = "\\\"";
+        JsonValueFormat.REPLACEMENT_CHARS['\\'] = "\\\\";
+        JsonValueFormat.REPLACEMENT_CHARS['\t'] = "\\t";
+        JsonValueFormat.REPLACEMENT_CHARS['\b'] = "\\b";
+        JsonValueFormat.REPLACEMENT_CHARS['\n'] = "\\n";
+        JsonValueFormat.REPLACEMENT_CHARS['\r'] = "\\r";
+        JsonValueFormat.REPLACEMENT_CHARS['\f'] = "\\f";
+    }}
+
+    private final Kind kind;
+    private final JsonValueFormat element;
+
+    private JsonValueFormat(Kind kind, JsonValueFormat element) {
+        this.kind = kind;
+        this.element = element;
+    }
+
+    /**
+     * Returns the format for values of the given type, or null if the type is not covered by a builtin codec.
+     * Mirrors how ConfigCodecs resolves types, but only accepts collection types the decoded value can be assigned to.
+     */
+    static @Nullable JsonValueFormat of(Type type) {
+        if (type instanceof WildcardType wildcard) {
+            return JsonValueFormat.of(wildcard.getUpperBounds()[0]);
+        }
+        if (type instanceof Class<?> clazz) {
+            Kind kind = JsonValueFormat.kindOf(clazz);
+            return kind == null ? null : new JsonValueFormat(kind, null);
+        }
+        if (!(type instanceof ParameterizedType pt) || !(pt.getRawType() instanceof Class<?> raw)) {
+            return null;
+        }
+        var arguments = pt.getActualTypeArguments();
+        if (raw.isAssignableFrom(ArrayList.class) && raw.getSimpleName().toLowerCase().contains("list") && arguments.length == 1) {
+            var element = JsonValueFormat.of(arguments[0]);
+            return element == null ? null : new JsonValueFormat(Kind.LIST, element);
+        }
+        if (raw == Map.class && arguments.length == 2) {
+            // JsonOps only supports string keys
+            var key = JsonValueFormat.of(arguments[0]);
+            var element = JsonValueFormat.of(arguments[1]);
+            return key == null || key.kind != Kind.STRING || element == null ? null : new JsonValueFormat(Kind.MAP, element);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the format with the given name, as generated bindings carry it: the lowercase kind, followed by the element format
+     * in angle brackets for lists and maps (whose keys are always strings), e.g. "map&lt;list&lt;int&gt;&gt;".
+     */
+    static @Nullable JsonValueFormat forName(@Nullable String name) {
+        if (name == null) return null;
+        int open = name.indexOf('<');
+        if (open < 0) return new JsonValueFormat(Kind.valueOf(name.toUpperCase(Locale.ROOT)), null);
+        var element = JsonValueFormat.forName(name.substring(open + 1, name.length() - 1));
+        return new JsonValueFormat(Kind.valueOf(name.substring(0, open).toUpperCase(Locale.ROOT)), element);
+    }
+
+    private static Kind kindOf(Class<?> clazz) {
+        if (clazz == boolean.class || clazz == Boolean.class) return Kind.BOOLEAN;
+        if (clazz == byte.class || clazz == Byte.class) return Kind.BYTE;
+        if (clazz == short.class || clazz == Short.class) return Kind.SHORT;
+        if (clazz == int.class || clazz == Integer.class) return Kind.INT;
+        if (clazz == long.class || clazz == Long.class) return Kind.LONG;
+        if (clazz == float.class || clazz == Float.class) return Kind.FLOAT;
+        if (clazz == double.class || clazz == Double.class) return Kind.DOUBLE;
+        if (clazz == char.class || clazz == Character.class) return Kind.CHAR;
+        if (clazz == String.class) return Kind.STRING;
+        return null;
+    }
+
+    boolean isCollection() {
+        return this.kind == Kind.LIST || this.kind == Kind.MAP;
+    }
+
+    /**
+     * Returns true if the value matches this format, so that it can be encoded without falling back to the codec.
+     */
+    boolean accepts(Object value) {
+        return switch (this.kind) {
+            case BOOLEAN -> value instanceof Boolean;
+            case BYTE -> value instanceof Byte;
+            case SHORT -> value instanceof Short;
+            case INT -> value instanceof Integer;
+            case LONG -> value instanceof Long;
+            case FLOAT -> value instanceof Float;
+            case DOUBLE -> value instanceof Double;
+            case CHAR -> value instanceof Character;
+            case STRING -> value instanceof String;
+            case LIST -> {
+                if (!(value instanceof List<?> list)) yield false;
+                for (Object element : list) {
+                    if (!this.element.accepts(element)) yield false;
+                }
+                yield true;
+            }
+            case MAP -> {
+                if (!(value instanceof Map<?, ?> map)) yield false;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!(entry.getKey() instanceof String) || !this.element.accepts(entry.getValue())) yield false;
+                }
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Returns the JSON text of the given value, or null if the value does not match this format.
+     */
+    @Nullable String encode(Object value) {
+        var out = new StringBuilder();
+        return this.write(value, out) ? out.toString() : null;
+    }
+
+    private boolean write(Object value, StringBuilder out) {
+        switch (this.kind) {
+            case BOOLEAN -> {
+                if (!(value instanceof Boolean b)) return false;
+                out.append(b.booleanValue());
+            }
+            case BYTE -> {
+                if (!(value instanceof Byte b)) return false;
+                out.append(b.intValue());
+            }
+            case SHORT -> {
+                if (!(value instanceof Short s)) return false;
+                out.append(s.intValue());
+            }
+            case INT -> {
+                if (!(value instanceof Integer i)) return false;
+                out.append(i.intValue());
+            }
+            case LONG -> {
+                if (!(value instanceof Long l)) return false;
+                out.append(l.longValue());
+            }
+            case FLOAT -> {
+                if (!(value instanceof Float f)) return false;
+                out.append(f.floatValue());
+            }
+            case DOUBLE -> {
+                if (!(value instanceof Double d)) return false;
+                out.append(d.doubleValue());
+            }
+            case CHAR -> {
+                if (!(value instanceof Character c)) return false;
+                JsonValueFormat.writeString(String.valueOf(c.charValue()), out);
+            }
+            case STRING -> {
+                if (!(value instanceof String s)) return false;
+                JsonValueFormat.writeString(s, out);
+            }
+            case LIST -> {
+                if (!(value instanceof List<?> list)) return false;
+                out.append('[');
+                boolean first = true;
+                for (Object element : list) {
+                    if (!first) out.append(',');
+                    first = false;
+                    if (!this.element.write(element, out)) return false;
+                }
+                out.append(']');
+            }
+            case MAP -> {
+                if (!(value instanceof Map<?, ?> map)) return false;
+                out.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!(entry.getKey() instanceof String key)) return false;
+                    if (!first) out.append(',');
+                    first = false;
+                    JsonValueFormat.writeString(key, out);
+                    out.append(':');
+                    if (!this.element.write(entry.getValue(), out)) return false;
+                }
+                out.append('}');
+            }
+        }
+        return true;
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = JsonValueFormat.REPLACEMENT_CHARS[c];
+                if (replacement == null) continue;
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            out.append(value, last, i).append(replacement);
+            last = i + 1;
+        }
+        out.append(value, last, length).append('"');
+    }
+
+    /**
+     * Decodes the given JSON text, or returns null if it is not in the plain form this format accepts.
+     */
+    @Nullable Object decode(String text) {
+        var reader = new Reader(text);
+        Object value = this.read(reader);
+        return value != null && reader.atEnd() ? value : null;
+    }
+
+    /**
+     * Writes a list or map as a block with one element per line, which readMultiline() reads back:
+     * <pre>
+     * [
+     *     "first",
+     *     "second"
+     * ]
+     * </pre>
+     * Only one element is held in memory as text at a time. The value must be accepted by this collection format.
+     */
+    void writeMultiline(Object value, Writer out) throws IOException {
+        var line = new StringBuilder();
+        Iterator<?> iterator = this.kind == Kind.LIST ? ((List<?>) value).iterator() : ((Map<?, ?>) value).entrySet().iterator();
+        out.write(this.kind == Kind.LIST ? "[\n" : "{\n");
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            line.setLength(0);
+            line.append("    ");
+            if (element instanceof Map.Entry<?, ?> entry && this.kind == Kind.MAP) {
+                JsonValueFormat.writeString((String) entry.getKey(), line);
+                line.append(": ");
+                element = entry.getValue();
+            }
+            this.element.write(element, line);
+            if (iterator.hasNext()) line.append(',');
+            out.append(line).append('\n');
+        }
+        out.write(this.kind == Kind.LIST ? "]" : "}");
+    }
+
+    /**
+     * Returns true if the value text opens a block written by writeMultiline().
+     */
+    boolean opensMultiline(String value) {
+        return (this.kind == Kind.LIST && value.equals("[")) || (this.kind == Kind.MAP && value.equals("{"));
+    }
+
+    /**
+     * Reads the lines of a block following its opening line, adding every element to the resulting collection directly.
+     * Blank lines and comments are skipped. The parser is advanced past the closing line, even if the block could not be read.
+     * A block that is not closed ends at the first unindented line assigning one of the given keys, which the parser is rewound to,
+     * so the entries following it are still read.
+     * Returns null if any element could not be decoded or the block is not closed.
+     */
+    @Nullable Object readMultiline(ConfigParser parser, Set<String> keys) {
+        char closing = this.kind == Kind.LIST ? ']' : '}';
+        var list = this.kind == Kind.LIST ? new ArrayList<>() : null;
+        var map = this.kind == Kind.MAP ? new LinkedHashMap<String, Object>() : null;
+        boolean valid = true;
+        while (parser.next()) {
+            if (!parser.isIndented() && parser.valueOffset() >= 0 && keys.contains(parser.key())) {
+                parser.rewind();
+                return null;
+            }
+            var in = new Reader(parser.line());
+            in.skipWhitespace();
+            if (in.consume(closing) && in.atEndOrComment()) {
+                return valid ? (list != null ? list : map) : null;
+            }
+            if (!valid || in.atEndOrComment()) continue;
+            String key = null;
+            if (map != null) {
+                key = in.readString();
+                in.skipWhitespace();
+                if (key == null || !in.consume(':')) {
+                    valid = false;
+                    continue;
+                }
+            }
+            Object value = this.element.read(in);
+            in.skipWhitespace();
+            in.consume(',');
+            if (value == null || !in.atEndOrComment()) {
+                valid = false;
+            } else if (list != null) {
+                list.add(value);
+            } else if (map.put(key, value) != null) {
+                valid = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the whole text as an integer without leading zeros, fraction or exponent and at most 18 digits.
+     * Returns Long.MIN_VALUE for anything else.
+     */
+    static long parseInteger(String text) {
+        var reader = new Reader(text);
+        long value = reader.readInteger();
+        return reader.position == text.length() ? value : Reader.INVALID;
+    }
+
+    /**
+     * Returns true if the whole text is a number in strict JSON syntax.
+     */
+    static boolean isNumber(String text) {
+        var reader = new Reader(text);
+        return reader.skipNumber() && reader.position == text.length();
+    }
+
+    private Object read(Reader in) {
+        in.skipWhitespace();
+        return switch (this.kind) {
+            case BOOLEAN -> in.readBoolean();
+            case BYTE -> {
+                long value = in.readInteger();
+                yield value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE ? (Object) (byte) value : null;
+            }
+            case SHORT -> {
+                long value = in.readInteger();
+                yield value >= Short.MIN_VALUE && value <= Short.MAX_VALUE ? (Object) (short) value : null;
+            }
+            case INT -> {
+                long value = in.readInteger();
+                yield value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : null;
+            }
+            case LONG -> {
+                long value = in.readInteger();
+                yield value != Reader.INVALID ? (Object) value : null;
+            }
+            case FLOAT -> {
+                String number = in.readNumber();
+                yield number == null ? null : (Object) Float.parseFloat(number);
+            }
+            case DOUBLE -> {
+                String number = in.readNumber();
+                yield number == null ? null : (Object) Double.parseDouble(number);
+            }
+            case CHAR -> {
+                String value = in.readString();
+                yield value == null || value.isEmpty() ? null : (Object) value.charAt(0);
+            }
+            case STRING -> in.readString();
+            case LIST -> this.readList(in);
+            case MAP -> this.readMap(in);
+        };
+    }
+
+    private List<Object> readList(Reader in) {
+        if (!in.consume('[')) return null;
+        var out = new ArrayList<>();
+        in.skipWhitespace();
+        if (!in.consume(']')) {
+            do {
+                Object element = this.element.read(in);
+                if (element == null) return null;
+                out.add(element);
+                in.skipWhitespace();
+            } while (in.consume(','));
+            if (!in.consume(']')) return null;
+        }
+        return out;
+    }
+
+    private Map<String, Object> readMap(Reader in) {
+        if (!in.consume('{')) return null;
+        var out = new LinkedHashMap<String, Object>();
+        in.skipWhitespace();
+        if (!in.consume('}')) {
+            do {
+                in.skipWhitespace();
+                String key = in.readString();
+                if (key == null) return null;
+                in.skipWhitespace();
+                if (!in.consume(':')) return null;
+                Object value = this.element.read(in);
+                // Duplicate keys are left to Gson, which keeps the last one
+                if (value == null || out.put(key, value) != null) return null;
+                in.skipWhitespace();
+            } while (in.consume(','));
+            if (!in.consume('}')) return null;
+        }
+        return out;
+    }
+
+    private static final class Reader {
+        static final long INVALID = Long.MIN_VALUE;
+
+        private final String text;
+        private int position = 0;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            this.skipWhitespace();
+            return this.position == this.text.length();
+        }
+
+        boolean atEndOrComment() {
+            return this.atEnd() || this.text.charAt(this.position) == '#';
+        }
+
+        void skipWhitespace() {
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return;
+                this.position++;
+            }
+        }
+
+        boolean consume(char c) {
+            if (this.position < this.text.length() && this.text.charAt(this.position) == c) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+
+        Boolean readBoolean() {
+            if (this.text.startsWith("true", this.position)) {
+                this.position += 4;
+                return this.endOfLiteral() ? Boolean.TRUE : null;
+            }
+            if (this.text.startsWith("false", this.position)) {
+                this.position += 5;
+                return this.endOfLiteral() ? Boolean.FALSE : null;
+            }
+            return null;
+        }
+
+        /**
+         * Reads an integer without leading zeros, fraction or exponent. Returns INVALID for anything else,
+         * including values that do not fit into 18 digits.
+         */
+        long readInteger() {
+            int start = this.position;
+            boolean negative = this.consume('-');
+            int digitsStart = this.position;
+            long value = 0;
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position);
+                if (c < '0' || c > '9') break;
+                value = value * 10 + (c - '0');
+                this.position++;
+            }
+            int digits = this.position - digitsStart;
+            if (digits == 0 || digits > 18 || (digits > 1 && this.text.charAt(digitsStart) == '0') || !this.endOfLiteral()) {
+                this.position = start;
+                return Reader.INVALID;
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Reads a number in strict JSON syntax and returns its text, or null if there is none.
+         */
+        String readNumber() {
+            int start = this.position;
+            return this.skipNumber() ? this.text.substring(start, this.position) : null;
+        }
+
+        boolean skipNumber() {
+            this.consume('-');
+            int digits = this.skipDigits();
+            if (digits == 0 || (digits > 1 && this.text.charAt(this.position - digits) == '0')) return false;
+            if (this.consume('.') && this.skipDigits() == 0) return false;
+            if (this.consume('e') || this.consume('E')) {
+                if (!this.consume('+')) this.consume('-');
+                if (this.skipDigits() == 0) return false;
+            }
+            return this.endOfLiteral();
+        }
+
+        private int skipDigits() {
+            int start = this.position;
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position);
+                if (c < '0' || c > '9') break;
+                this.position++;
+            }
+            return this.position - start;
+        }
+
+        // Gson reads unquoted literals up to the next delimiter, so "truex" or "12ab" must not be taken as a prefix
+        private boolean endOfLiteral() {
+            if (this.position >= this.text.length()) return true;
+            char c = this.text.charAt(this.position);
+            return c == ',' || c == ']' || c == '}' || c == ':' || c == ' ' || c == '\t' || c == '\n' || c == '\r';
+        }
+
+        String readString() {
+            if (!this.consume('"')) return null;
+            int start = this.position;
+            StringBuilder out = null;
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position++);
+                if (c == '"') {
+                    if (out == null) return this.text.substring(start, this.position - 1);
+                    return out.append(this.text, start, this.position - 1).toString();
+                }
+                if (c < 0x20) return null;
+                if (c != '\\') continue;
+                if (out == null) out = new StringBuilder();
+                out.append(this.text, start, this.position - 1);
+                if (this.position >= this.text.length()) return null;
+                char escaped = this.text.charAt(this.position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> out.append(escaped);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (this.position + 4 > this.text.length()) return null;
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(this.text.charAt(this.position++), 16);
+                            if (digit < 0) return null;
+                            code = (code << 4) | digit;
+                        }
+                        out.append((char) code);
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+                start = this.position;
+            }
+            return null;
+        }
+    }
+}
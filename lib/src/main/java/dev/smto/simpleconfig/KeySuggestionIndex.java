@@ -0,0 +1,90 @@
+package dev.smto.simpleconfig;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Lowercase prefix trie over every segment start of the config keys. A segment starts at the beginning of a key and after every '.' or '_'.
+ * Each node stores the keys having a segment with that prefix in key order, so a lookup is a walk down the trie with no per-call allocation.
+ */
+class KeySuggestionIndex {
+    private static final int[] NO_MATCHES = new int[0];
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int[] matches = KeySuggestionIndex.NO_MATCHES;
+        private int matchCount = 0;
+
+        private Node child(char label) {
+            int i = Arrays.binarySearch(this.labels, label);
+            return i < 0 ? null : this.children[i];
+        }
+
+        private Node getOrCreateChild(char label) {
+            int i = Arrays.binarySearch(this.labels, label);
+            if (i >= 0) return this.children[i];
+            i = -(i + 1);
+            var labels = new char[this.labels.length + 1];
+            var children = new Node[this.children.length + 1];
+            System.arraycopy(this.labels, 0, labels, 0, i);
+            System.arraycopy(this.children, 0, children, 0, i);
+            System.arraycopy(this.labels, i, labels, i + 1, this.labels.length - i);
+            System.arraycopy(this.children, i, children, i + 1, this.children.length - i);
+            labels[i] = label;
+            children[i] = new Node();
+            this.labels = labels;
+            this.children = children;
+            return children[i];
+        }
+
+        private void addMatch(int ordinal) {
+            // Ordinals are inserted in ascending order, so duplicates can only be the last element
+            if (this.matchCount > 0 && this.matches[this.matchCount - 1] == ordinal) return;
+            if (this.matchCount == this.matches.length) {
+                this.matches = Arrays.copyOf(this.matches, Math.max(4, this.matchCount * 2));
+            }
+            this.matches[this.matchCount++] = ordinal;
+        }
+    }
+
+    private final String[] keys;
+    private final Node root = new Node();
+
+    KeySuggestionIndex(List<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+            String key = this.keys[ordinal].toLowerCase(Locale.ROOT);
+            this.insert(key, 0, ordinal);
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (c == '.' || c == '_') this.insert(key, i + 1, ordinal);
+            }
+        }
+    }
+
+    private void insert(String key, int from, int ordinal) {
+        Node node = this.root;
+        node.addMatch(ordinal);
+        for (int i = from; i < key.length(); i++) {
+            node = node.getOrCreateChild(key.charAt(i));
+            node.addMatch(ordinal);
+        }
+    }
+
+    /**
+     * Passes every key with a segment starting with the given lowercase prefix to the consumer, in key order.
+     */
+    void forEachMatch(String prefix, Consumer<String> consumer) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) return;
+        for (int i = 0; i < node.matchCount; i++) {
+            consumer.accept(this.keys[node.matches[i]]);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 
-import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
@@ -16,8 +15,17 @@ import static com.mojang.brigadier.builder.RequiredArgumentBuilder.argument;
 @SuppressWarnings("unused")
 public class MinecraftCommandHelper {
     private final SimpleConfig instance;
+    private KeySuggestionIndex keyIndex;
     public MinecraftCommandHelper(SimpleConfig instance) {
         this.instance = instance;
+        this.keyIndex = new KeySuggestionIndex(instance.getKeys());
+    }
+
+    /**
+     * Rebuilds the index used for key suggestions. Only needed if the keys of the underlying config have changed.
+     */
+    public void rebuildKeyIndex() {
+        this.keyIndex = new KeySuggestionIndex(this.instance.getKeys());
     }
 
     public void reload() {
@@ -25,12 +33,12 @@ public class MinecraftCommandHelper {
     }
 
     public String get(String key) {
-        return this.instance.toMap().getOrDefault(key, null);
+        return this.instance.getEncoded(key);
     }
 
     public boolean set(String key, String value) {
         if (this.instance.trySet(key, value)) {
-            this.instance.write();
+            this.instance.scheduleWrite();
             return true;
         }
         return false;
@@ -63,24 +71,17 @@ public class MinecraftCommandHelper {
     public CompletableFuture<Suggestions> suggestMatchingValues(String key, SuggestionsBuilder builder) {
         String string = builder.getRemaining().toLowerCase(Locale.ROOT);
 
-        for (String string2 : List.of(this.instance.toMap().getOrDefault(key, ""))) {
-            if (MinecraftCommandHelper.shouldSuggest(string, string2.toLowerCase(Locale.ROOT))) {
-                builder.suggest(string2);
-            }
+        String value = this.instance.getEncoded(key);
+        if (value == null) value = "";
+        if (MinecraftCommandHelper.shouldSuggest(string, value.toLowerCase(Locale.ROOT))) {
+            builder.suggest(value);
         }
 
         return builder.buildFuture();
     }
 
     public CompletableFuture<Suggestions> suggestMatchingKeys(SuggestionsBuilder builder) {
-        String string = builder.getRemaining().toLowerCase(Locale.ROOT);
-
-        for (String string2 : this.instance.getKeys()) {
-            if (MinecraftCommandHelper.shouldSuggest(string, string2.toLowerCase(Locale.ROOT))) {
-                builder.suggest(string2);
-            }
-        }
-
+        this.keyIndex.forEachMatch(builder.getRemaining().toLowerCase(Locale.ROOT), builder::suggest);
         return builder.buildFuture();
     }
 
@@ -0,0 +1,134 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigAccessor;
+
+/**
+ * Handles entries of primitive fields without boxing. Values are carried as raw bits in a long
+ * (booleans as 0/1, floating point numbers as their raw bit pattern), read and written through the primitive accessor
+ * methods and parsed from or formatted to JSON text directly.
+ */
+enum PrimitiveFormat {
+    BOOLEAN, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE;
+
+    // A NaN bit pattern beyond the 18 digits parse() accepts for longs, so it is never a parsed value
+    static final long INVALID = 0x7ff8000000000000L;
+
+    /**
+     * Returns the format for the given field type, or null if it is not a supported primitive type.
+     */
+    static PrimitiveFormat of(Class<?> type) {
+        if (type == boolean.class) return PrimitiveFormat.BOOLEAN;
+        if (type == byte.class) return PrimitiveFormat.BYTE;
+        if (type == short.class) return PrimitiveFormat.SHORT;
+        if (type == int.class) return PrimitiveFormat.INT;
+        if (type == long.class) return PrimitiveFormat.LONG;
+        if (type == float.class) return PrimitiveFormat.FLOAT;
+        if (type == double.class) return PrimitiveFormat.DOUBLE;
+        return null;
+    }
+
+    /**
+     * Returns the format for the given field type name, in the format of Type#getTypeName(), or null if it is not a supported primitive type.
+     */
+    static PrimitiveFormat of(String typeName) {
+        return switch (typeName) {
+            case "boolean" -> PrimitiveFormat.BOOLEAN;
+            case "byte" -> PrimitiveFormat.BYTE;
+            case "short" -> PrimitiveFormat.SHORT;
+            case "int" -> PrimitiveFormat.INT;
+            case "long" -> PrimitiveFormat.LONG;
+            case "float" -> PrimitiveFormat.FLOAT;
+            case "double" -> PrimitiveFormat.DOUBLE;
+            default -> null;
+        };
+    }
+
+    long read(ConfigAccessor accessor) {
+        return switch (this) {
+            case BOOLEAN -> accessor.getBoolean() ? 1 : 0;
+            case BYTE -> accessor.getByte();
+            case SHORT -> accessor.getShort();
+            case INT -> accessor.getInt();
+            case LONG -> accessor.getLong();
+            case FLOAT -> Float.floatToRawIntBits(accessor.getFloat());
+            case DOUBLE -> Double.doubleToRawLongBits(accessor.getDouble());
+        };
+    }
+
+    void write(ConfigAccessor accessor, long bits) {
+        switch (this) {
+            case BOOLEAN -> accessor.setBoolean(bits != 0);
+            case BYTE -> accessor.setByte((byte) bits);
+            case SHORT -> accessor.setShort((short) bits);
+            case INT -> accessor.setInt((int) bits);
+            case LONG -> accessor.setLong(bits);
+            case FLOAT -> accessor.setFloat(Float.intBitsToFloat((int) bits));
+            case DOUBLE -> accessor.setDouble(Double.longBitsToDouble(bits));
+        }
+    }
+
+    /**
+     * Parses plain JSON text, returns INVALID if the value has to be decoded by the codec instead.
+     */
+    long parse(String text) {
+        switch (this) {
+            case BOOLEAN -> {
+                if (text.equals("true")) return 1;
+                if (text.equals("false")) return 0;
+                return PrimitiveFormat.INVALID;
+            }
+            case FLOAT -> {
+                return JsonValueFormat.isNumber(text) ? Float.floatToRawIntBits(Float.parseFloat(text)) : PrimitiveFormat.INVALID;
+            }
+            case DOUBLE -> {
+                return JsonValueFormat.isNumber(text) ? Double.doubleToRawLongBits(Double.parseDouble(text)) : PrimitiveFormat.INVALID;
+            }
+            default -> {
+                long value = JsonValueFormat.parseInteger(text);
+                boolean valid = switch (this) {
+                    case BYTE -> value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+                    case SHORT -> value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+                    case INT -> value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+                    default -> value != Long.MIN_VALUE;
+                };
+                return valid ? value : PrimitiveFormat.INVALID;
+            }
+        }
+    }
+
+    /**
+     * Formats the value exactly like Gson does.
+     */
+    String format(long bits) {
+        return switch (this) {
+            case BOOLEAN -> bits != 0 ? "true" : "false";
+            case BYTE, SHORT, INT, LONG -> Long.toString(bits);
+            case FLOAT -> Float.toString(Float.intBitsToFloat((int) bits));
+            case DOUBLE -> Double.toString(Double.longBitsToDouble(bits));
+        };
+    }
+
+    Object box(long bits) {
+        return switch (this) {
+            case BOOLEAN -> bits != 0;
+            case BYTE -> (byte) bits;
+            case SHORT -> (short) bits;
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case FLOAT -> Float.intBitsToFloat((int) bits);
+            case DOUBLE -> Double.longBitsToDouble(bits);
+        };
+    }
+
+    /**
+     * Returns the bits of a boxed value, as decoded by the codec.
+     */
+    long bits(Object value) {
+        return switch (this) {
+            case BOOLEAN -> (Boolean) value ? 1 : 0;
+            case BYTE, SHORT, INT, LONG -> ((Number) value).longValue();
+            case FLOAT -> Float.floatToRawIntBits(((Number) value).floatValue());
+            case DOUBLE -> Double.doubleToRawLongBits(((Number) value).doubleValue());
+        };
+    }
+}
@@ -1,20 +1,22 @@
 package dev.smto.simpleconfig;
 
 import com.mojang.serialization.Codec;
-import com.mojang.serialization.DataResult;
-import com.mojang.serialization.DynamicOps;
 import dev.smto.simpleconfig.api.*;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * A dead simple config system.
@@ -29,10 +31,51 @@ public class SimpleConfig {
 
     private final ConfigTranscoder transcoder;
     private final Path configFilePath;
-    private final List<ConfigEntry<?>> configEntries = new ArrayList<>();
+    private final ConfigSchema schema;
+    private final List<ConfigEntry<?>> configEntries;
+    private final Map<String, Integer> keyIndex;
+    private final EntryState[] entryStates;
+    private final ConfigMetrics metrics;
+    // Snapshot version in which the encoded value of each entry last changed
+    private final long[] entryVersions;
+    private String[] lastEncoded = null;
 
     private MinecraftCommandHelper minecraftCommandHelper = null;
 
+    private ConfigFiles.State lastFileState = null;
+    private ConfigFiles.State sidecarState = null;
+    private boolean syncWrites = false;
+    private boolean sidecarCache;
+    private boolean patchWrites;
+    private boolean parallelCodecs;
+    // Below this many values, splitting the work costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 16;
+    // Positions of the values in the config file, only kept in patch write mode
+    private ConfigLayout layout = null;
+    // Configs with multiline entries are written piece by piece instead of being built in memory first
+    private final boolean streamedWrites;
+    private ConfigWatcher watcher = null;
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ConfigSnapshot snapshot = null;
+    private long version = 0;
+    // Versions only count within this instance, deltas carry the epoch to tell them apart from those of other instances
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+
+    private volatile ConfigValues values = null;
+    private boolean atomicUpdates = false;
+
+    private long writeBehindMillis = 0;
+    private boolean pendingWrite = false;
+    private ScheduledFuture<?> pendingFlush = null;
+
+    /**
+     * If enabled, every write is flushed to the storage device before it replaces the config file.
+     * Patch writes then always replace the file as a whole, as values overwritten in place could be torn by a crash.
+     */
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
     /**
      * Creates a new instance of SimpleConfig.
      * @param file Target path, which will be used without modification, so make sure it is valid!
@@ -93,31 +136,37 @@ public class SimpleConfig {
      * @param codecOverrides Assign custom codecs for specific field names
      */
     public SimpleConfig(Path file, Class<?> configClass, ConfigLogger logger, ConfigTranscoder<?> transcoder, Map<String, Codec<?>> codecOverrides) {
+        this(file, ConfigSchema.of(configClass, codecOverrides), logger, transcoder);
+    }
+
+    /**
+     * Creates a new instance of SimpleConfig, binding the given file to an already compiled schema.
+     * @param file Target path, which will be used without modification, so make sure it is valid!
+     * @param schema Schema of the config class, check ConfigSchema#of
+     * @param logger Logger to use, check the ConfigLoggers class
+     * @param transcoder Transcoder to use, default is ConfigTranscoders.JSON
+     */
+    public SimpleConfig(Path file, ConfigSchema schema, ConfigLogger logger, ConfigTranscoder<?> transcoder) {
         this.logger = logger;
         this.configFilePath = file;
         this.transcoder = transcoder;
-        for (Field field : configClass.getFields()) {
-            String section = null;
-            var sectionAnnotation = field.getAnnotation(ConfigAnnotations.Section.class);
-            if (sectionAnnotation != null) section = sectionAnnotation.section();
-
-            String comment = null;
-            var commentAnnotation = field.getAnnotation(ConfigAnnotations.Comment.class);
-            if (commentAnnotation != null) comment = commentAnnotation.comment();
-
-            Codec<?> codec;
-            if (codecOverrides.containsKey(field.getName())) {
-                codec = codecOverrides.get(field.getName());
-            } else {
-                codec = ConfigCodecs.get(field);
-            }
-
-            try {
-                this.configEntries.add(new ConfigEntry<>(field.getName(), new ConfigDecoration(section, comment), field, codec));
-            } catch (Throwable x) {
-                throw new RuntimeException(x);
-            }
+        this.schema = schema;
+        this.sidecarCache = schema.usesSidecarCache();
+        this.configEntries = schema.getEntries();
+        this.keyIndex = schema.keyIndex();
+        this.entryStates = new EntryState[this.configEntries.size()];
+        this.entryVersions = new long[this.entryStates.length];
+        // Builtin types skip the JsonElement tree and codec entirely when using the default transcoder
+        boolean directJson = transcoder == ConfigTranscoders.JSON;
+        boolean multiline = false;
+        for (int i = 0; i < this.entryStates.length; i++) {
+            this.entryStates[i] = new EntryState(this.configEntries.get(i), schema.header(i), directJson ? schema.jsonFormat(i) : null, directJson ? schema.primitiveFormat(i) : null, directJson && schema.isMultiline(i));
+            multiline |= this.entryStates[i].multiline;
         }
+        this.streamedWrites = multiline;
+        this.patchWrites = schema.usesPatchWrites() && !multiline;
+        this.parallelCodecs = schema.usesParallelCodecs();
+        this.metrics = new ConfigMetrics(file.getFileName().toString(), this.configEntries.stream().map(ConfigEntry::key).toArray(String[]::new), this.keyIndex);
 
         try {
             Files.createDirectories(file.getParent());
@@ -128,148 +177,1017 @@ public class SimpleConfig {
             this.logger.warn("Could not read config file \""+this.configFilePath.getFileName().toString()+"\"! Default values will be used!");
             return;
         }
-        this.read();
-        this.write();
+        // The file content read here is patched by the first write, instead of reading and scanning the file again
+        this.write(this.readFile());
 
-        try {
-            Class.forName("com.mojang.brigadier.suggestion.Suggestion", false, this.getClass().getClassLoader());
+        if (Brigadier.PRESENT) {
             this.minecraftCommandHelper = new MinecraftCommandHelper(this);
-        } catch (ClassNotFoundException ignored) {}
+        }
+    }
+
+    // Checked once per class loader, instead of once per instance
+    private static class Brigadier {
+        private static final boolean PRESENT = Brigadier.isPresent();
+
+        private static boolean isPresent() {
+            try {
+                Class.forName("com.mojang.brigadier.suggestion.Suggestion", false, SimpleConfig.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException ignored) {
+                return false;
+            }
+        }
     }
 
     /**
      * Reads and parses the config file, applying all values to the static fields of the config class.
      */
-    public void read() {
+    public synchronized void read() {
+        this.readFile();
+    }
+
+    /**
+     * The content of the config file as it was read, along with its hash.
+     */
+    private record FileContent(ByteBuffer content, byte[] hash) {}
+
+    /**
+     * Reads the config file like read(). Returns the content that was read, or null if the file does not exist.
+     */
+    private FileContent readFile() {
         // If the file exists, read and parse it
-        if (this.configFilePath.toFile().exists()) {
+        if (!this.configFilePath.toFile().exists()) return null;
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginReload();
+        ByteBuffer content;
+        try {
+            content = ConfigFiles.read(this.configFilePath);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        byte[] hash = ConfigFiles.hash(content);
+        var read = new FileContent(content, hash);
+        if (this.sidecarCache && this.readSidecar(start, event, hash)) return read;
+        long bytes = content.remaining();
+        int decoded = this.parse(content, hash);
+        this.recordReload("file", start, event, bytes, decoded);
+        return read;
+    }
+
+    private void recordReload(String source, long start, Object event, long bytes, int decoded) {
+        long nanos = System.nanoTime() - start;
+        this.metrics.recordRead(nanos, bytes, true);
+        ConfigEvents.reload(event, this.configFilePath.getFileName().toString(), source, bytes, decoded);
+    }
+
+    /**
+     * Applies the values from the sidecar cache, if it was created from a config file with the given content hash and for the same schema.
+     * Returns false if the config file has to be parsed instead. No value is changed in that case.
+     */
+    private boolean readSidecar(long start, Object event, byte[] hash) {
+        ConfigSidecar.Contents contents;
+        try {
+            contents = ConfigSidecar.read(ConfigSidecar.pathOf(this.configFilePath));
+        } catch (IOException ignored) {
+            return false;
+        }
+        // Size and modification time can match an edited file within the timestamp granularity, so only the content hash is trusted
+        if (contents == null || !Arrays.equals(contents.state().hash(), hash)) return false;
+        // Typed values are only valid for fields of exactly the type they were cached for
+        var entries = contents.entries();
+        var indices = new int[entries.size()];
+        boolean matches = contents.fingerprint() == this.schema.fingerprint();
+        for (int i = 0; matches && i < indices.length; i++) {
+            Integer index = this.keyIndex.get(entries.get(i).key());
+            matches = index != null && entries.get(i).type().equals(this.schema.typeName(index));
+            if (matches) indices[i] = index;
+        }
+        if (!matches) {
+            this.logger.debug("Cache for config file \""+this.configFilePath.getFileName().toString()+"\" was created for different config entries, ignoring it.");
+            return false;
+        }
+
+        var decoded = new ArrayList<DecodedValue>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            var entry = entries.get(i);
             try {
-                for (String line : Files.readAllLines(this.configFilePath)) {
-                    var data = line.split("#")[0].trim().split("=");
-                    for (ConfigEntry<?> field : this.configEntries) {
-                        if (data[0].trim().equals(field.key())) {
-                            try {
-                                StringBuilder nData = new StringBuilder(data[1]);
-                                if (data.length > 2) {
-                                    for(int i = 2; i < data.length; i++) {
-                                        nData.append("=").append(data[i]);
-                                    }
-                                }
-                                try {
-                                    boolean success = this.applyToField(field, nData.toString().trim());
-                                    if (!success) throw new RuntimeException("Could not set field: \"" + field.key() + "\"");
-                                    break;
-                                } catch (Exception ignored) {
-                                    this.logger.warn("Could not fully read config file \""+this.configFilePath.getFileName().toString()+"\"!");
-                                }
-                            } catch (Throwable ignored) {
-                                this.logger.error("Failed to parse config file line: \""+line+"\"!");
-                            }
-                        }
-                    }
+                decoded.add(entry.typed() ? this.decoded(indices[i], entry.text(), entry.value()) : this.decode(indices[i], entry.text()));
+            } catch (Exception ignored) {
+                return false;
+            }
+        }
+        if (!this.applyTransaction(decoded)) {
+            this.logger.warn("Could not apply cache for config file \""+this.configFilePath.getFileName().toString()+"\"! Reading the config file instead.");
+            return false;
+        }
+        // The cached text is exactly what write() produced for these values, so it also seeds the encode cache
+        for (DecodedValue value : decoded) {
+            var state = this.entryStates[value.index()];
+            try {
+                if (state.primitive != null) state.cache(value.bits(), value.raw());
+                else state.cache(state.entry.accessor().get(), value.raw());
+            } catch (Throwable ignored) {}
+        }
+        var current = ConfigFiles.stat(this.configFilePath, hash);
+        this.lastFileState = current;
+        this.sidecarState = current;
+        this.recordReload("cache", start, event, contents.size(), decoded.size());
+        return true;
+    }
+
+    /**
+     * Updates the sidecar cache after the config file has been written, if it is outdated.
+     */
+    private void writeSidecar(String[] encoded) {
+        if (this.lastFileState == null || this.lastFileState.matches(this.sidecarState)) return;
+        var entries = new ArrayList<ConfigSidecar.Entry>(encoded.length);
+        for (int i = 0; i < encoded.length; i++) {
+            Object value;
+            try {
+                value = this.configEntries.get(i).accessor().get();
+            } catch (Throwable ignored) {
+                return;
+            }
+            boolean typed = this.schema.hasBuiltinCodec(i) && BinaryValues.isEncodable(value);
+            entries.add(new ConfigSidecar.Entry(this.configEntries.get(i).key(), this.schema.typeName(i), encoded[i], typed, typed ? value : null));
+        }
+        try {
+            ConfigSidecar.write(ConfigSidecar.pathOf(this.configFilePath), this.schema.fingerprint(), this.lastFileState, entries);
+            this.sidecarState = this.lastFileState;
+        } catch (IOException ignored) {
+            this.logger.warn("Could not write cache for config file \""+this.configFilePath.getFileName().toString()+"\"!");
+        }
+    }
+
+    /**
+     * Enables or disables parallel codec mode, which is enabled by default for classes annotated with ConfigAnnotations.ParallelCodecs.
+     * While enabled, the values read from the config file are decoded and all entries are encoded concurrently on the common
+     * fork-join pool. Fields are still assigned in a single phase afterwards, and the written file is identical to the sequential one.
+     * Fewer than 16 values are always handled sequentially.
+     */
+    public synchronized void setParallelCodecs(boolean parallelCodecs) {
+        this.parallelCodecs = parallelCodecs;
+    }
+
+    private boolean isParallel(int count) {
+        return this.parallelCodecs && count >= SimpleConfig.PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * Enables or disables patch write mode, which is enabled by default for classes annotated with ConfigAnnotations.PatchWrites.
+     * While enabled, write() only replaces the values that changed in the existing config file, so comments, key order and unknown keys
+     * added by hand are kept. Values are only overwritten in place while sync writes are disabled. Has no effect for configs with multiline entries.
+     */
+    public synchronized void setPatchWrites(boolean patchWrites) {
+        this.patchWrites = patchWrites && !this.streamedWrites;
+        if (!this.patchWrites) this.layout = null;
+    }
+
+    /**
+     * Enables or disables the binary sidecar cache, which is enabled by default for classes annotated with ConfigAnnotations.SidecarCache.
+     * While enabled, read() uses the cache instead of parsing the config file as long as the file has not been modified since it was last written.
+     */
+    public synchronized void setSidecarCache(boolean sidecarCache) {
+        this.sidecarCache = sidecarCache;
+    }
+
+    /**
+     * Re-reads the config file, unless its content is exactly what was last read or written by this instance.
+     */
+    synchronized void reloadIfChanged() {
+        if (!this.configFilePath.toFile().exists()) return;
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginReload();
+        ByteBuffer content;
+        try {
+            content = ConfigFiles.read(this.configFilePath);
+        } catch (IOException e) {
+            this.logger.warn("Could not reload config file \""+this.configFilePath.getFileName().toString()+"\"!");
+            return;
+        }
+        long bytes = content.remaining();
+        byte[] hash = ConfigFiles.hash(content);
+        if (this.lastFileState != null && Arrays.equals(this.lastFileState.hash(), hash)) {
+            this.metrics.recordRead(System.nanoTime() - start, bytes, false);
+            return;
+        }
+        this.logger.info("Reloading modified config file \""+this.configFilePath.getFileName().toString()+"\"");
+        int decoded = this.parse(content, hash);
+        this.recordReload("file", start, event, bytes, decoded);
+    }
+
+    /**
+     * Parses the content and applies all values that differ from the ones last applied. Returns the number of decoded values.
+     */
+    private int parse(ByteBuffer content, byte[] hash) {
+        this.lastFileState = ConfigFiles.stat(this.configFilePath, hash);
+        var layout = this.patchWrites ? new ConfigLayout(hash, this.entryStates.length) : null;
+        var decoded = new ArrayList<DecodedValue>();
+        var pending = new ArrayList<RawValue>();
+        ConfigParser parser = new ConfigParser(content);
+        while (parser.next()) {
+            if (parser.isBlank()) continue;
+            Integer index = this.keyIndex.get(parser.key());
+            if (index == null) continue;
+            if (layout != null) layout.record(index, parser);
+            if (!parser.hasValue()) {
+                this.logger.error("Failed to parse config file line: \""+parser.line()+"\"!");
+                continue;
+            }
+            String raw = parser.value();
+            var state = this.entryStates[index];
+            if (state.multiline && state.format.opensMultiline(raw)) {
+                long start = System.nanoTime();
+                Object event = ConfigEvents.beginCodec();
+                Object value = state.format.readMultiline(parser, this.keyIndex.keySet());
+                this.metrics.recordDecode(index, System.nanoTime() - start, event);
+                if (value == null) {
+                    this.metrics.decodeFailed(index);
+                    this.logger.warn("Failed to decode multiline value for config entry \""+state.entry.key()+"\"! The block is malformed or not closed, keeping the current value.");
+                    this.logger.warn("Could not fully read config file \""+this.configFilePath.getFileName().toString()+"\"!");
+                } else {
+                    decoded.add(new DecodedValue(index, raw, value, 0));
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                continue;
             }
+            if (this.isApplied(index, raw)) continue;
+            // Decoded after parsing, so the order of the values is kept
+            pending.add(new RawValue(decoded.size(), index, raw));
+            decoded.add(null);
+        }
+        this.decodeAll(pending, decoded);
+        var changes = new ArrayList<ConfigChange>();
+        if (!this.applyAll(decoded, changes)) {
+            this.logger.warn("Could not fully read config file \""+this.configFilePath.getFileName().toString()+"\"!");
+        }
+        this.layout = layout;
+        this.invalidateSnapshot();
+        this.notifyListeners(changes);
+        return decoded.size();
+    }
+
+    /**
+     * A raw value read from the config file, which still has to be decoded into the given position of the decoded values.
+     */
+    private record RawValue(int position, int index, String raw) {}
+
+    /**
+     * Decodes the raw values into their positions, concurrently in parallel codec mode.
+     * Values that could not be decoded are removed from the decoded values afterwards.
+     */
+    private void decodeAll(List<RawValue> pending, List<DecodedValue> decoded) {
+        Consumer<RawValue> decode = value -> {
+            try {
+                decoded.set(value.position(), this.decode(value.index(), value.raw()));
+            } catch (Exception ignored) {}
+        };
+        if (this.isParallel(pending.size())) {
+            pending.parallelStream().forEach(decode);
+        } else {
+            pending.forEach(decode);
+        }
+        for (RawValue value : pending) {
+            if (decoded.get(value.position()) == null) this.logger.warn("Could not fully read config file \""+this.configFilePath.getFileName().toString()+"\"!");
+        }
+        decoded.removeIf(Objects::isNull);
+    }
+
+    /**
+     * Starts watching the config file for external modifications, reloading it on a background thread.
+     * Events are debounced by 500 milliseconds. Writes made by this instance do not trigger a reload.
+     */
+    public void startWatching() {
+        this.startWatching(500);
+    }
+
+    /**
+     * Starts watching the config file for external modifications, reloading it on a background thread
+     * once no further modifications have been observed for the given amount of milliseconds.
+     * Writes made by this instance do not trigger a reload.
+     */
+    public synchronized void startWatching(long debounceMillis) {
+        if (this.watcher != null) return;
+        try {
+            this.watcher = new ConfigWatcher(this, this.configFilePath, debounceMillis);
+            this.watcher.start();
+        } catch (IOException e) {
+            this.watcher = null;
+            this.logger.error("Could not watch config file \""+this.configFilePath.getFileName().toString()+"\"! Changes will not be reloaded automatically!");
         }
     }
 
-    private String encodeField(ConfigEntry<?> field) {
+    /**
+     * Stops watching the config file, if it is being watched.
+     */
+    public synchronized void stopWatching() {
+        if (this.watcher == null) return;
+        this.watcher.stop();
+        this.watcher = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <O> String encodeField(ConfigEntry<?> field) {
         if (field.codec() == null) {
             return "";
         }
+        var transcoder = (ConfigTranscoder<O>) this.transcoder;
+        return transcoder.processEncoderOutput(field.encode(transcoder.getOps()).resultOrPartial(this.logger::warn));
+    }
 
-        Method m;
+    /**
+     * Returns the encoded value of the entry, re-encoding it only if it was changed since it was last encoded.
+     */
+    private String encodeCached(int index) {
+        EntryState state = this.entryStates[index];
+        long start;
+        Object event;
         try {
-            m = field.codec().getClass().getMethod("encodeStart", DynamicOps.class, Object.class);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
+            if (state.primitive != null) {
+                long bits = state.primitive.read(state.entry.accessor());
+                String cached = state.cached(bits);
+                if (cached != null) return cached;
+                start = System.nanoTime();
+                event = ConfigEvents.beginCodec();
+                String encoded = state.primitive.format(bits);
+                state.cache(bits, encoded);
+                this.metrics.recordEncode(index, System.nanoTime() - start, event);
+                return encoded;
+            }
+            Object value = state.entry.accessor().get();
+            String cached = state.cached(value);
+            if (cached != null) return cached;
+            start = System.nanoTime();
+            event = ConfigEvents.beginCodec();
+            String encoded = state.format != null ? state.format.encode(value) : null;
+            if (encoded == null) encoded = this.encodeField(state.entry);
+            state.cache(value, encoded);
+            this.metrics.recordEncode(index, System.nanoTime() - start, event);
+            return encoded;
+        } catch (RuntimeException e) {
+            this.metrics.encodeFailed(index);
+            throw e;
         }
-        String out;
-        try {
-            out = this.transcoder.processEncoderOutput(((DataResult<?>) m.invoke(field.codec(), this.transcoder.getOps(), field.reference().get(null))).resultOrPartial(this.logger::warn));
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+    }
+
+    /**
+     * Encodes the values of all entries, concurrently in parallel codec mode. Entries that could not be encoded are null.
+     */
+    private String[] encodeAll() {
+        var encoded = new String[this.entryStates.length];
+        IntConsumer encode = i -> {
+            try {
+                encoded[i] = this.encodeCached(i);
+            } catch (Throwable ignored) {
+                encoded[i] = null;
+            }
+        };
+        if (this.isParallel(encoded.length)) {
+            IntStream.range(0, encoded.length).parallel().forEach(encode);
+        } else {
+            for (int i = 0; i < encoded.length; i++) encode.accept(i);
         }
-        return out;
+        return encoded;
     }
 
     /**
      * Writes all values of the config class to the target file.
      */
-    public void write() {
+    public synchronized void write() {
+        this.write(null);
+    }
+
+    /**
+     * Writes like write(). In patch write mode, the given content of the config file is patched instead of reading the file again.
+     */
+    private void write(FileContent read) {
+        this.pendingWrite = false;
+        if (this.patchWrites && this.writePatched(read)) return;
+        if (this.streamedWrites) {
+            this.writeStreamed();
+            return;
+        }
         // Write current values to the file
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginWrite();
         try {
             var out = new StringBuilder();
-            for (ConfigEntry<?> field : this.configEntries) {
-                if (field.decorations() != null) {
-                    if (field.decorations().section() != null) {
-                        StringBuilder sectionLength = new StringBuilder();
-                        sectionLength.append("=".repeat(field.decorations().section().length()));
-                        out.append("# ").append(sectionLength).append("\n");
-                        out.append("# ");
-                        out.append(field.decorations().section()).append("\n");
-                        out.append("# ").append(sectionLength).append("\n");
-                    }
-                    if (field.decorations().comment() != null) {
-                        for (String s : field.decorations().comment().split("\n")) {
-                            out.append("# ").append(s).append("\n");
+            var encoded = this.encodeAll();
+            boolean complete = true;
+            for (int i = 0; i < this.entryStates.length; i++) {
+                EntryState state = this.entryStates[i];
+                out.append(state.header);
+                if (encoded[i] != null) {
+                    out.append(state.entry.key()).append("=").append(encoded[i]).append("\n");
+                } else {
+                    this.logger.warn("Failed to encode field: \""+state.entry.key()+"\"! This could indicate a broken codec or input.");
+                    encoded[i] = "";
+                    complete = false;
+                    out.append("\n");
+                }
+            }
+            this.updateSnapshot(encoded);
+            byte[] content = out.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] hash = ConfigFiles.hash(content);
+            // Skip the write entirely if the file still holds exactly what was last read or written
+            boolean skipped = this.lastFileState != null && Arrays.equals(this.lastFileState.hash(), hash) && this.lastFileState.matches(ConfigFiles.stat(this.configFilePath, hash));
+            if (!skipped) {
+                ConfigFiles.writeAtomically(this.configFilePath, content, this.syncWrites);
+                this.lastFileState = ConfigFiles.stat(this.configFilePath, hash);
+                this.layout = null;
+            }
+            this.recordWrite(start, event, skipped ? 0 : content.length, skipped);
+            // The cache must hold every value, otherwise it would not match the file
+            if (this.sidecarCache && complete) this.writeSidecar(encoded);
+        } catch (Exception ignored) {
+            this.logger.error("Could not write config file \""+ this.configFilePath.getFileName().toString() +"\"! Changes will not be saved!");
+        }
+    }
+
+    /**
+     * Replaces only the values that differ from the ones in the config file, leaving everything else in the file untouched.
+     * Entries missing from the file are appended to it. If every changed value keeps its length in bytes and writes are not synced,
+     * the values are written at their positions directly, otherwise the patched content replaces the file atomically.
+     * Returns false if the file does not exist and has to be written as a whole instead. The file is only read if no content is given.
+     */
+    private boolean writePatched(FileContent read) {
+        if (read == null && !this.configFilePath.toFile().exists()) return false;
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginWrite();
+        if (read == null) {
+            try {
+                ByteBuffer content = ConfigFiles.read(this.configFilePath);
+                read = new FileContent(content, ConfigFiles.hash(content));
+            } catch (IOException ignored) {
+                return false;
+            }
+        }
+        ByteBuffer content = read.content();
+        byte[] hash = read.hash();
+        if (this.layout == null || !Arrays.equals(this.layout.hash, hash)) this.layout = ConfigLayout.scan(content, hash, this.keyIndex);
+
+        var encoded = this.encodeAll();
+        boolean complete = true;
+        var patches = new ArrayList<ConfigLayout.Patch>();
+        // Appended entries have to start on a new line
+        boolean newLine = content.limit() > 0 && content.get(content.limit() - 1) != '\n';
+        for (int i = 0; i < this.entryStates.length; i++) {
+            EntryState state = this.entryStates[i];
+            if (encoded[i] == null) {
+                this.logger.warn("Failed to encode field: \""+state.entry.key()+"\"! This could indicate a broken codec or input.");
+                encoded[i] = "";
+                complete = false;
+                continue;
+            }
+            byte[] value = encoded[i].getBytes(StandardCharsets.UTF_8);
+            if (this.layout.offset(i) < 0) {
+                byte[] prefix = ((newLine ? "\n" : "") + state.header + state.entry.key() + "=").getBytes(StandardCharsets.UTF_8);
+                byte[] replacement = Arrays.copyOf(prefix, prefix.length + value.length + 1);
+                System.arraycopy(value, 0, replacement, prefix.length, value.length);
+                replacement[replacement.length - 1] = '\n';
+                patches.add(new ConfigLayout.Patch(i, content.limit(), 0, replacement, prefix.length, value.length));
+                newLine = false;
+                continue;
+            }
+            if (this.layout.isKeyOnly(i)) {
+                // Lines that only hold the key are completed, instead of appending the entry a second time
+                byte[] prefix = (state.entry.key() + "=").getBytes(StandardCharsets.UTF_8);
+                byte[] replacement = Arrays.copyOf(prefix, prefix.length + value.length);
+                System.arraycopy(value, 0, replacement, prefix.length, value.length);
+                patches.add(new ConfigLayout.Patch(i, this.layout.offset(i), this.layout.length(i), replacement, prefix.length, value.length));
+                continue;
+            }
+            if (this.layout.matches(content, i, value)) continue;
+            // Keep the value as it was written by hand, as long as it still decodes to the current value
+            if (this.isApplied(i, this.layout.text(content, i))) continue;
+            patches.add(new ConfigLayout.Patch(i, this.layout.offset(i), this.layout.length(i), value));
+        }
+        this.updateSnapshot(encoded);
+        if (patches.isEmpty()) {
+            this.lastFileState = ConfigFiles.stat(this.configFilePath, hash);
+            this.recordWrite(start, event, 0, true);
+        } else {
+            patches.sort(Comparator.comparingInt(ConfigLayout.Patch::offset));
+            // Computed before writing, as large files are mapped and would change along with the file
+            byte[] patched = ConfigLayout.splice(content, patches);
+            byte[] patchedHash = ConfigFiles.hash(patched);
+            long bytes = 0;
+            try {
+                // Writing in place is not crash-safe, a crash in between can leave some values written and others not.
+                // Synced writes promise a consistent file on disk, so they always go through a temporary file.
+                if (!this.syncWrites && ConfigLayout.fitsInPlace(patches)) {
+                    try (FileChannel channel = FileChannel.open(this.configFilePath, StandardOpenOption.WRITE)) {
+                        for (ConfigLayout.Patch patch : patches) {
+                            ByteBuffer buffer = ByteBuffer.wrap(patch.replacement());
+                            while (buffer.hasRemaining()) {
+                                channel.write(buffer, patch.offset() + buffer.position());
+                            }
+                            bytes += patch.replacement().length;
                         }
                     }
+                } else {
+                    ConfigFiles.writeAtomically(this.configFilePath, patched, this.syncWrites);
+                    bytes = patched.length;
                 }
-                try {
-                    out.append(field.key()).append("=").append(this.encodeField(field)).append("\n");
-                } catch (Throwable ignored) {
-                    this.logger.warn("Failed to encode field: \""+field.key()+"\"! This could indicate a broken codec or input.");
-                    out.append("\n");
+            } catch (IOException ignored) {
+                this.logger.error("Could not write config file \""+ this.configFilePath.getFileName().toString() +"\"! Changes will not be saved!");
+                this.lastFileState = null;
+                this.layout = null;
+                return true;
+            }
+            this.lastFileState = ConfigFiles.stat(this.configFilePath, patchedHash);
+            this.layout = this.layout.patched(patchedHash, patches);
+            this.recordWrite(start, event, bytes, false);
+        }
+        if (this.sidecarCache && complete) this.writeSidecar(encoded);
+        return true;
+    }
+
+    /**
+     * Writes the config file piece by piece, so the file content is never held in memory as a whole.
+     * Multiline entries are written element by element.
+     */
+    private void writeStreamed() {
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginWrite();
+        // The content may be produced twice, so failures are only reported once afterwards
+        var failed = new LinkedHashSet<String>();
+        try {
+            byte[] hash = ConfigFiles.writeAtomically(this.configFilePath, out -> {
+                for (int i = 0; i < this.entryStates.length; i++) {
+                    EntryState state = this.entryStates[i];
+                    out.write(state.header);
+                    try {
+                        Object value = state.multiline ? state.entry.accessor().get() : null;
+                        boolean block = state.multiline && state.format.accepts(value);
+                        String encoded = block ? null : this.encodeCached(i);
+                        out.write(state.entry.key());
+                        out.write("=");
+                        if (block) {
+                            long blockStart = System.nanoTime();
+                            Object blockEvent = ConfigEvents.beginCodec();
+                            state.format.writeMultiline(value, out);
+                            this.metrics.recordEncode(i, System.nanoTime() - blockStart, blockEvent);
+                        }
+                        else out.write(encoded);
+                        out.write("\n");
+                    } catch (IOException e) {
+                        throw e;
+                    } catch (Throwable ignored) {
+                        failed.add(state.entry.key());
+                        out.write("\n");
+                    }
                 }
+            }, this.syncWrites, this.lastFileState);
+            for (String key : failed) {
+                this.logger.warn("Failed to encode field: \""+key+"\"! This could indicate a broken codec or input.");
             }
-            Files.writeString(this.configFilePath, ""); // if this write fails, the file will not be deleted due to the exception
-            Files.delete(this.configFilePath);
-            Files.writeString(this.configFilePath, out);
+            // The encoded values of multiline entries are not kept, so the snapshot is rebuilt on demand if the content changed
+            if (this.lastFileState == null || !Arrays.equals(this.lastFileState.hash(), hash)) this.invalidateSnapshot();
+            var previous = this.lastFileState;
+            this.lastFileState = ConfigFiles.stat(this.configFilePath, hash);
+            boolean skipped = previous != null && previous.matches(this.lastFileState);
+            this.recordWrite(start, event, skipped || this.lastFileState == null ? 0 : this.lastFileState.size(), skipped);
         } catch (Exception ignored) {
             this.logger.error("Could not write config file \""+ this.configFilePath.getFileName().toString() +"\"! Changes will not be saved!");
         }
     }
 
+    private void recordWrite(long start, Object event, long bytes, boolean skipped) {
+        long nanos = System.nanoTime() - start;
+        this.metrics.recordWrite(nanos, bytes);
+        ConfigEvents.write(event, this.configFilePath.getFileName().toString(), bytes, skipped);
+    }
+
     public void reload() {
         this.read();
     }
 
+    /**
+     * Enables write-behind mode if the interval is positive, disables it otherwise.
+     * In write-behind mode, trySet() and scheduleWrite() only mark the config as modified, and a background thread
+     * writes it at most once per interval. Pending changes are also written on flush() and when the JVM shuts down.
+     * A single shutdown hook is shared by all configs and only references them weakly, so configs in write-behind mode
+     * can still be garbage collected. Disabling write-behind mode writes pending changes and removes the config from the hook.
+     */
+    public synchronized void setWriteBehind(long intervalMillis) {
+        this.writeBehindMillis = Math.max(0, intervalMillis);
+        if (this.writeBehindMillis == 0) {
+            this.flush();
+            ConfigScheduler.removeShutdownFlush(this);
+        } else {
+            ConfigScheduler.addShutdownFlush(this);
+        }
+    }
+
+    /**
+     * Writes the config to disk, either immediately or, in write-behind mode, with the next background flush.
+     */
+    public synchronized void scheduleWrite() {
+        if (this.writeBehindMillis == 0) {
+            this.write();
+            return;
+        }
+        this.pendingWrite = true;
+        if (this.pendingFlush == null) {
+            this.pendingFlush = ConfigScheduler.schedule(this::scheduledFlush, this.writeBehindMillis);
+        }
+    }
+
+    private synchronized void scheduledFlush() {
+        this.pendingFlush = null;
+        this.flush();
+    }
+
+    /**
+     * Immediately writes pending changes made in write-behind mode. Does nothing if there are none.
+     */
+    public synchronized void flush() {
+        if (this.pendingFlush != null) {
+            this.pendingFlush.cancel(false);
+            this.pendingFlush = null;
+        }
+        if (this.pendingWrite) this.write();
+    }
+
     /**
      * Tries to set the value of the config entry with the given key to the given value.
      * Returns true if the value was set, false if it was not found or could not be set.
      */
-    public boolean trySet(String key, String value) {
-        for (ConfigEntry<?> entry : this.configEntries) {
-            if (entry.key().equals(key)) {
-                return this.applyToField(entry, value);
+    public synchronized boolean trySet(String key, String value) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) return false;
+        var changes = new ArrayList<ConfigChange>(1);
+        boolean success = true;
+        if (!this.isApplied(index, value)) {
+            try {
+                success = this.applyAll(List.of(this.decode(index, value)), changes);
+            } catch (Exception ignored) {
+                success = false;
             }
         }
-        return false;
+        if (success) {
+            this.invalidateSnapshot();
+            if (this.writeBehindMillis > 0) this.scheduleWrite();
+        }
+        this.notifyListeners(changes);
+        return success;
     }
 
-    private boolean applyToField(ConfigEntry<?> entry, String value) {
-        var parsed = this.transcoder.processDecoderInput(value);
-        if (parsed == null) {
+    /**
+     * Sets the values of all given config entries as a single transaction: every value is decoded first, and they are only
+     * applied if all of them could be decoded. If any key is unknown or any value could not be decoded or assigned, all fields keep
+     * their previous values and false is returned. Listeners are notified once with all changes. Like trySet(), the config file
+     * is only written in write-behind mode, with the next background flush, otherwise writing it is left to the caller.
+     */
+    public synchronized boolean setAll(Map<String, String> values) {
+        var decoded = new ArrayList<DecodedValue>(values.size());
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            Integer index = this.keyIndex.get(value.getKey());
+            if (index == null) return false;
+            if (this.isApplied(index, value.getValue())) continue;
+            try {
+                decoded.add(this.decode(index, value.getValue()));
+            } catch (Exception ignored) {
+                return false;
+            }
+        }
+        if (!this.applyTransaction(decoded)) return false;
+        if (!decoded.isEmpty() && this.writeBehindMillis > 0) this.scheduleWrite();
+        return true;
+    }
+
+    /**
+     * Applies all decoded values, or none of them if any could not be assigned, and notifies listeners once.
+     * Returns false if the previous values had to be restored.
+     */
+    private boolean applyTransaction(List<DecodedValue> decoded) {
+        if (decoded.isEmpty()) return true;
+
+        // Keep the previous values, so they can be restored if any assignment fails
+        var previous = new Object[decoded.size()];
+        var previousBits = new long[decoded.size()];
+        for (int i = 0; i < decoded.size(); i++) {
+            var state = this.entryStates[decoded.get(i).index()];
+            try {
+                if (state.primitive != null) previousBits[i] = state.primitive.read(state.entry.accessor());
+                else previous[i] = state.entry.accessor().get();
+            } catch (Throwable ignored) {
+                this.logger.warn("Could not get value of config entry \""+state.entry.key()+"\"!");
+                return false;
+            }
+        }
+        var previousValues = this.values;
+        var changes = new ArrayList<ConfigChange>(decoded.size());
+        if (!this.applyAll(decoded, changes)) {
+            for (int i = 0; i < decoded.size(); i++) {
+                var state = this.entryStates[decoded.get(i).index()];
+                try {
+                    if (state.primitive != null) state.primitive.write(state.entry.accessor(), previousBits[i]);
+                    else state.entry.accessor().set(previous[i]);
+                } catch (Throwable ignored) {
+                    this.logger.error("Could not restore value of config entry \""+state.entry.key()+"\"!");
+                }
+            }
+            this.values = previousValues;
             return false;
         }
+        this.invalidateSnapshot();
+        this.notifyListeners(changes);
+        return true;
+    }
+
+    /**
+     * Creates a compact binary delta of all entries whose encoded values changed after the given version,
+     * identifying entries by their index in the schema instead of their key. Use null to include every entry,
+     * which is also done for versions of another instance. The delta carries the current version of this instance,
+     * which applyDelta() returns on the receiving side and is the version to pass here for the next delta.
+     */
+    public synchronized byte[] createDelta(ConfigVersion since) {
+        long sinceVersion = since != null && since.epoch() == this.epoch ? since.version() : 0;
+        var snapshot = this.snapshot();
+        var encoded = snapshot.encodedValues();
+        var changed = new ArrayList<Integer>();
+        for (int i = 0; i < encoded.length; i++) {
+            // Entries that could not be encoded are left out, the receiver could not decode them either
+            if (this.entryVersions[i] > sinceVersion && !encoded[i].isEmpty()) changed.add(i);
+        }
+        return ConfigDelta.write(this.schema.fingerprint(), this.epoch, snapshot.getVersion(), changed, encoded);
+    }
+
+    /**
+     * Applies a delta created by createDelta() on a config with the same schema, decoding every value through its codec.
+     * Like setAll(), the values are only applied if all of them could be decoded, and listeners are notified once.
+     * The config file is not written. Returns the version of the sender the delta was created at,
+     * or null if it is malformed, was created for a different schema or contains values that could not be decoded or assigned.
+     */
+    public synchronized ConfigVersion applyDelta(ByteBuffer delta) {
+        var contents = ConfigDelta.read(delta, this.schema.fingerprint(), this.entryStates.length);
+        if (contents == null) {
+            this.logger.warn("Could not apply delta to config file \""+this.configFilePath.getFileName().toString()+"\"! It is malformed or was created for a different config.");
+            return null;
+        }
+        var decoded = new ArrayList<DecodedValue>(contents.entries().size());
+        for (ConfigDelta.Entry entry : contents.entries()) {
+            if (this.isApplied(entry.index(), entry.value())) continue;
+            try {
+                decoded.add(this.decode(entry.index(), entry.value()));
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+        if (!this.applyTransaction(decoded)) return null;
+        return new ConfigVersion(contents.epoch(), contents.version());
+    }
+
+    /**
+     * A decoded value that has not been applied yet. Values of primitive entries are only held as bits.
+     */
+    private record DecodedValue(int index, String raw, Object value, long bits) {}
+
+    /**
+     * Decodes the raw value for the entry at the given index without applying it.
+     * Throws an IllegalArgumentException if the value could not be decoded.
+     */
+    private DecodedValue decode(int index, String raw) {
+        long start = System.nanoTime();
+        Object event = ConfigEvents.beginCodec();
         try {
-            this.logger.debug("Applying value \""+value+"\" to config entry \""+entry.key()+"\"");
-            var newVal = entry.codec().parse(this.transcoder.getOps(), parsed).resultOrPartial().orElseThrow();
-            // codec.parse always returns an immutable list
-            if (newVal instanceof List) {
-                newVal = new ArrayList<>((List<?>) newVal);
+            var primitive = this.entryStates[index].primitive;
+            if (primitive != null) {
+                long bits = primitive.parse(raw);
+                if (bits != PrimitiveFormat.INVALID) {
+                    this.logger.debug("Applying value \""+raw+"\" to config entry \""+this.configEntries.get(index).key()+"\"");
+                    return new DecodedValue(index, raw, null, bits);
+                }
             }
-            entry.reference().set(null, newVal);
+            return this.decoded(index, raw, this.decodeValue(index, raw));
+        } catch (RuntimeException e) {
+            this.metrics.decodeFailed(index);
+            throw e;
+        } finally {
+            this.metrics.recordDecode(index, System.nanoTime() - start, event);
+        }
+    }
+
+    private DecodedValue decoded(int index, String raw, Object value) {
+        var primitive = this.entryStates[index].primitive;
+        if (primitive != null) return new DecodedValue(index, raw, null, primitive.bits(value));
+        return new DecodedValue(index, raw, value, 0);
+    }
+
+    /**
+     * Returns true if the raw value is identical to the last value applied to the entry, and the field has not been changed since.
+     */
+    private boolean isApplied(int index, String raw) {
+        var state = this.entryStates[index];
+        try {
+            if (state.primitive != null) return state.isApplied(raw, state.primitive.read(state.entry.accessor()));
+            return state.isApplied(raw, state.entry.accessor().get());
         } catch (Throwable ignored) {
-            this.logger.warn("Failed to decode \""+value+"\" for config entry \""+entry.key()+"\"! This could indicate a broken codec or input.");
             return false;
         }
+    }
+
+    /**
+     * Decodes the raw value for the entry at the given index to an object, using the direct JSON format or the codec.
+     * Throws an IllegalArgumentException if the value could not be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    private <O> Object decodeValue(int index, String value) {
+        var entry = this.configEntries.get(index);
+        var format = this.entryStates[index].format;
+        if (format != null) {
+            Object decoded = format.decode(value);
+            if (decoded != null) {
+                this.logger.debug("Applying value \""+value+"\" to config entry \""+entry.key()+"\"");
+                return decoded;
+            }
+        }
+        var transcoder = (ConfigTranscoder<O>) this.transcoder;
+        var parsed = transcoder.processDecoderInput(value);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Could not set field: \"" + entry.key() + "\"");
+        }
+        try {
+            this.logger.debug("Applying value \""+value+"\" to config entry \""+entry.key()+"\"");
+            return entry.decode(transcoder.getOps(), parsed).resultOrPartial().orElseThrow();
+        } catch (Throwable ignored) {
+            this.logger.warn("Failed to decode \""+value+"\" for config entry \""+entry.key()+"\"! This could indicate a broken codec or input.");
+            throw new IllegalArgumentException("Could not set field: \"" + entry.key() + "\"");
+        }
+    }
+
+    /**
+     * Applies already decoded values to their fields, in order. In atomic update mode, the values that were assigned successfully
+     * are published as a whole once all fields are assigned, so values() never reports a value its field did not receive.
+     * Changes are added to the given list.
+     * Returns false if any of the values could not be assigned.
+     */
+    private boolean applyAll(List<DecodedValue> decoded, List<ConfigChange> changes) {
+        if (decoded.isEmpty()) return true;
+        Object[] values = this.atomicUpdates ? this.values().copyValues() : null;
+        if (values == null) this.values = null;
+        boolean success = true;
+        for (DecodedValue value : decoded) {
+            var entry = this.configEntries.get(value.index());
+            var state = this.entryStates[value.index()];
+            if (state.primitive != null) {
+                try {
+                    long oldBits = state.primitive.read(entry.accessor());
+                    state.primitive.write(entry.accessor(), value.bits());
+                    state.applied(value.raw(), value.bits());
+                    if (values != null) values[value.index()] = state.primitive.box(value.bits());
+                    // Only box the values if anyone is going to see the change
+                    if (oldBits != value.bits() && (!this.listeners.isEmpty() || !state.listeners().isEmpty())) {
+                        changes.add(new ConfigChange(entry.key(), state.primitive.box(oldBits), state.primitive.box(value.bits())));
+                    }
+                } catch (Throwable ignored) {
+                    this.logger.warn("Failed to decode \""+value.raw()+"\" for config entry \""+entry.key()+"\"! This could indicate a broken codec or input.");
+                    this.metrics.decodeFailed(value.index());
+                    success = false;
+                }
+                continue;
+            }
+            Object newVal = value.value();
+            // codec.parse always returns an immutable list, lists from the direct JSON format can be used as they are
+            if (newVal instanceof List && !(newVal instanceof ArrayList)) {
+                newVal = new ArrayList<>((List<?>) newVal);
+            }
+            try {
+                Object oldVal = entry.accessor().get();
+                entry.accessor().set(newVal);
+                this.entryStates[value.index()].applied(value.raw(), newVal);
+                if (values != null) values[value.index()] = ConfigValues.freeze(newVal);
+                if (!Objects.equals(oldVal, newVal)) changes.add(new ConfigChange(entry.key(), oldVal, newVal));
+            } catch (Throwable ignored) {
+                this.logger.warn("Failed to decode \""+value.raw()+"\" for config entry \""+entry.key()+"\"! This could indicate a broken codec or input.");
+                this.metrics.decodeFailed(value.index());
+                success = false;
+            }
+        }
+        if (values != null) this.values = new ConfigValues(this.keyIndex, values);
+        return success;
+    }
+
+    /**
+     * Returns a consistent, immutable set of all current values.
+     * In atomic update mode this never blocks and always reflects a completed read() or trySet().
+     */
+    public ConfigValues values() {
+        var values = this.values;
+        if (values != null) return values;
+        synchronized (this) {
+            if (this.values == null) {
+                var out = new Object[this.configEntries.size()];
+                for (int i = 0; i < out.length; i++) {
+                    try {
+                        out[i] = ConfigValues.freeze(this.configEntries.get(i).accessor().get());
+                    } catch (Throwable ignored) {}
+                }
+                this.values = new ConfigValues(this.keyIndex, out);
+            }
+            return this.values;
+        }
+    }
+
+    /**
+     * Enables or disables atomic update mode. In this mode, read() and trySet() decode every value first and then publish
+     * the complete new value set with a single volatile write before assigning the static fields, so values() is lock-free
+     * and always consistent. Without it, values() is rebuilt from the fields on first access after a change.
+     */
+    public synchronized void setAtomicUpdates(boolean atomicUpdates) {
+        this.atomicUpdates = atomicUpdates;
+        if (atomicUpdates) this.values();
+    }
+
+    // Read the current field values directly, without boxing for primitive fields.
+    // They throw an IllegalArgumentException if there is no entry with the given key.
+
+    public boolean getBoolean(String key) {
+        return this.accessor(key).getBoolean();
+    }
+
+    public int getInt(String key) {
+        return this.accessor(key).getInt();
+    }
+
+    public long getLong(String key) {
+        return this.accessor(key).getLong();
+    }
+
+    public float getFloat(String key) {
+        return this.accessor(key).getFloat();
+    }
+
+    public double getDouble(String key) {
+        return this.accessor(key).getDouble();
+    }
+
+    private ConfigAccessor accessor(String key) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) throw new IllegalArgumentException("Unknown config key \"" + key + "\"!");
+        return this.configEntries.get(index).accessor();
+    }
+
+    private void notifyListeners(List<ConfigChange> changes) {
+        if (changes.isEmpty()) return;
+        for (ConfigChange change : changes) {
+            for (Consumer<ConfigChange> listener : this.entryStates[this.keyIndex.get(change.key())].listeners()) {
+                try {
+                    listener.accept(change);
+                } catch (Throwable ignored) {
+                    this.logger.warn("Change listener for config entry \""+change.key()+"\" failed!");
+                }
+            }
+        }
+        var view = Collections.unmodifiableList(changes);
+        for (ConfigChangeListener listener : this.listeners) {
+            try {
+                listener.onChange(view);
+            } catch (Throwable ignored) {
+                this.logger.warn("Change listener for config file \""+this.configFilePath.getFileName().toString()+"\" failed!");
+            }
+        }
+    }
+
+    /**
+     * Registers a listener that receives all changed entries after each read() or trySet().
+     */
+    public void addListener(ConfigChangeListener listener) {
+        this.listeners.add(listener);
+    }
 
+    public void removeListener(ConfigChangeListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener that is called whenever the value of the config entry with the given key changes.
+     * Returns false if there is no such entry.
+     */
+    public synchronized boolean addListener(String key, Consumer<ConfigChange> listener) {
+        Integer index = this.keyIndex.get(key);
+        if (index == null) return false;
+        this.entryStates[index].addListener(listener);
         return true;
     }
 
+    public synchronized void removeListener(String key, Consumer<ConfigChange> listener) {
+        Integer index = this.keyIndex.get(key);
+        if (index != null) this.entryStates[index].removeListener(listener);
+    }
+
+    /**
+     * Returns the counters and latency histograms of this config's reads, writes and codec calls.
+     */
+    public ConfigMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public ConfigSchema getSchema() {
+        return this.schema;
+    }
+
     /**
      * Returns list of all config keys.
      */
@@ -281,16 +1199,53 @@ public class SimpleConfig {
      * Creates a HashMap of all config keys and their values. Changing the HashMap will not change the values in the config file.
      */
     public HashMap<String,String> toMap() {
-        var out = new HashMap<String,String>();
-        for (ConfigEntry<?> entry : this.configEntries) {
-            try {
-                out.put(entry.key(), this.encodeField(entry));
-            } catch (Throwable ignored) {
-                this.logger.warn("Could not get value of config entry \""+entry.key()+"\"!");
-                out.put(entry.key(), "");
+        return new HashMap<>(this.snapshot().asMap());
+    }
+
+    /**
+     * Returns the encoded value of the config entry with the given key, or null if there is no such entry.
+     */
+    public String getEncoded(String key) {
+        return this.snapshot().getEncoded(key);
+    }
+
+    /**
+     * Returns an immutable snapshot of all encoded values. The snapshot is only rebuilt after values have been changed.
+     */
+    public ConfigSnapshot snapshot() {
+        var snapshot = this.snapshot;
+        if (snapshot != null) return snapshot;
+        synchronized (this) {
+            if (this.snapshot == null) {
+                var encoded = this.encodeAll();
+                for (int i = 0; i < encoded.length; i++) {
+                    if (encoded[i] != null) continue;
+                    this.logger.warn("Could not get value of config entry \""+this.entryStates[i].entry.key()+"\"!");
+                    encoded[i] = "";
+                }
+                this.snapshot = this.newSnapshot(encoded);
             }
+            return this.snapshot;
+        }
+    }
+
+    private void invalidateSnapshot() {
+        this.snapshot = null;
+    }
+
+    private void updateSnapshot(String[] encoded) {
+        var snapshot = this.snapshot;
+        if (snapshot != null && Arrays.equals(encoded, snapshot.encodedValues())) return;
+        this.snapshot = this.newSnapshot(encoded);
+    }
+
+    private ConfigSnapshot newSnapshot(String[] encoded) {
+        long version = ++this.version;
+        for (int i = 0; i < encoded.length; i++) {
+            if (this.lastEncoded == null || !Objects.equals(this.lastEncoded[i], encoded[i])) this.entryVersions[i] = version;
         }
-        return out;
+        this.lastEncoded = encoded;
+        return new ConfigSnapshot(version, this.keyIndex, encoded);
     }
 
     /**
@@ -0,0 +1,140 @@
+package dev.smto.simpleconfig;
+
+import com.mojang.serialization.Codec;
+import dev.smto.simpleconfig.api.ConfigLogger;
+import dev.smto.simpleconfig.api.ConfigTranscoder;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads many configs concurrently, e.g. during startup.
+ * Every registration is constructed on a bounded executor right away. Use completion() to wait for all of them,
+ * and getFailures() to find out which ones could not be loaded.
+ */
+@SuppressWarnings("unused")
+public class SimpleConfigRegistry implements AutoCloseable {
+    private final ExecutorService ownedExecutor;
+    private final Executor executor;
+    private final Map<Path, CompletableFuture<SimpleConfig>> configs = new ConcurrentHashMap<>();
+    private final Map<Path, Throwable> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new registry loading configs on its own pool of daemon threads, sized by the number of available processors.
+     */
+    public SimpleConfigRegistry() {
+        this(Math.max(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a new registry loading configs on its own pool of daemon threads.
+     * @param parallelism Maximum number of configs loaded at the same time
+     */
+    public SimpleConfigRegistry(int parallelism) {
+        var counter = new AtomicInteger();
+        this.ownedExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "SimpleConfig Loader #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = this.ownedExecutor;
+    }
+
+    /**
+     * Creates a new registry loading configs on the given executor. The executor is not shut down by close().
+     */
+    public SimpleConfigRegistry(Executor executor) {
+        this.ownedExecutor = null;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<SimpleConfig> register(Path file, Class<?> configClass) {
+        return this.register(file, configClass, ConfigLoggers.NONE, ConfigTranscoders.JSON, new HashMap<>());
+    }
+
+    public CompletableFuture<SimpleConfig> register(Path file, Class<?> configClass, ConfigLogger logger) {
+        return this.register(file, configClass, logger, ConfigTranscoders.JSON, new HashMap<>());
+    }
+
+    public CompletableFuture<SimpleConfig> register(Path file, Class<?> configClass, ConfigLogger logger, Map<String, Codec<?>> codecOverrides) {
+        return this.register(file, configClass, logger, ConfigTranscoders.JSON, codecOverrides);
+    }
+
+    /**
+     * Starts loading a config in the background. Parameters are the same as for the SimpleConfig constructors.
+     * Returns a future completing with the loaded config, or exceptionally if it could not be loaded.
+     * Throws an IllegalArgumentException if the file is already registered, unless loading it failed.
+     */
+    public CompletableFuture<SimpleConfig> register(Path file, Class<?> configClass, ConfigLogger logger, ConfigTranscoder<?> transcoder, Map<String, Codec<?>> codecOverrides) {
+        // The slot is reserved before anything is constructed, so a duplicate registration never touches the file
+        var future = new CompletableFuture<SimpleConfig>();
+        if (this.configs.putIfAbsent(file, future) != null) {
+            throw new IllegalArgumentException("A config is already registered for \"" + file + "\"!");
+        }
+        this.failures.remove(file);
+        try {
+            this.executor.execute(() -> {
+                try {
+                    future.complete(new SimpleConfig(file, configClass, logger, transcoder, codecOverrides));
+                } catch (Throwable e) {
+                    this.failures.put(file, e);
+                    // Failed registrations release their slot before completing, so the file can be registered again right away
+                    this.configs.remove(file, future);
+                    logger.error("Could not load config file \"" + file.getFileName().toString() + "\": " + e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.configs.remove(file, future);
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Returns a future completing once every config registered so far has finished loading, successfully or not.
+     */
+    public CompletableFuture<Void> completion() {
+        return CompletableFuture.allOf(this.configs.values().stream()
+                .map(future -> future.handle((config, error) -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns the config loaded from the given file, or null if it is not registered, still loading or failed to load.
+     */
+    public SimpleConfig get(Path file) {
+        var future = this.configs.get(file);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) return null;
+        return future.join();
+    }
+
+    /**
+     * Returns all configs that have been loaded successfully so far.
+     */
+    public Map<Path, SimpleConfig> getConfigs() {
+        var out = new HashMap<Path, SimpleConfig>();
+        for (var entry : this.configs.entrySet()) {
+            var future = entry.getValue();
+            if (future.isDone() && !future.isCompletedExceptionally()) out.put(entry.getKey(), future.join());
+        }
+        return out;
+    }
+
+    /**
+     * Returns the errors of all configs that failed to load so far.
+     */
+    public Map<Path, Throwable> getFailures() {
+        return Collections.unmodifiableMap(this.failures);
+    }
+
+    /**
+     * Shuts down the executor owned by this registry. Configs that are still loading will finish loading.
+     */
+    @Override
+    public void close() {
+        if (this.ownedExecutor != null) this.ownedExecutor.shutdown();
+    }
+}
@@ -0,0 +1,242 @@
+package dev.smto.simpleconfig.api;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads and writes the value backing a config entry.
+ */
+public interface ConfigAccessor {
+    Object get();
+    void set(Object value);
+
+    // Primitive variants, which accessors of primitive fields override to avoid boxing
+
+    default boolean getBoolean() {
+        return (Boolean) this.get();
+    }
+
+    default void setBoolean(boolean value) {
+        this.set(value);
+    }
+
+    default byte getByte() {
+        return ((Number) this.get()).byteValue();
+    }
+
+    default void setByte(byte value) {
+        this.set(value);
+    }
+
+    default short getShort() {
+        return ((Number) this.get()).shortValue();
+    }
+
+    default void setShort(short value) {
+        this.set(value);
+    }
+
+    default int getInt() {
+        return ((Number) this.get()).intValue();
+    }
+
+    default void setInt(int value) {
+        this.set(value);
+    }
+
+    default long getLong() {
+        return ((Number) this.get()).longValue();
+    }
+
+    default void setLong(long value) {
+        this.set(value);
+    }
+
+    default float getFloat() {
+        return ((Number) this.get()).floatValue();
+    }
+
+    default void setFloat(float value) {
+        this.set(value);
+    }
+
+    default double getDouble() {
+        return ((Number) this.get()).doubleValue();
+    }
+
+    default void setDouble(double value) {
+        this.set(value);
+    }
+
+    /**
+     * Creates an accessor for a static field. The method handles are resolved once, so no reflective lookup happens per call.
+     * Fields that cannot be accessed (non-static or final) still produce an accessor, which throws once it is used.
+     * For primitive fields, the primitive variants go through handles carrying the raw bits of the value in a long and do not box.
+     */
+    static ConfigAccessor ofStaticField(Field field) {
+        MethodHandle getter = null;
+        MethodHandle setter = null;
+        MethodHandle bitsGetter = null;
+        MethodHandle bitsSetter = null;
+        Class<?> type = field.getType();
+        if (Modifier.isStatic(field.getModifiers())) {
+            try {
+                field.trySetAccessible();
+            } catch (Throwable ignored) {}
+            var lookup = MethodHandles.lookup();
+            try {
+                var handle = lookup.unreflectGetter(field);
+                getter = handle.asType(MethodType.methodType(Object.class));
+                if (type.isPrimitive()) {
+                    if (type == float.class) handle = MethodHandles.filterReturnValue(handle, lookup.findStatic(Float.class, "floatToRawIntBits", MethodType.methodType(int.class, float.class)));
+                    if (type == double.class) handle = MethodHandles.filterReturnValue(handle, lookup.findStatic(Double.class, "doubleToRawLongBits", MethodType.methodType(long.class, double.class)));
+                    // Widens integers and maps booleans to 0/1
+                    bitsGetter = MethodHandles.explicitCastArguments(handle, MethodType.methodType(long.class));
+                }
+            } catch (Throwable ignored) {}
+            if (!Modifier.isFinal(field.getModifiers())) {
+                try {
+                    var handle = lookup.unreflectSetter(field);
+                    setter = handle.asType(MethodType.methodType(void.class, Object.class));
+                    if (type.isPrimitive()) {
+                        if (type == float.class) handle = MethodHandles.filterArguments(handle, 0, lookup.findStatic(Float.class, "intBitsToFloat", MethodType.methodType(float.class, int.class)));
+                        if (type == double.class) handle = MethodHandles.filterArguments(handle, 0, lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class)));
+                        // Truncates like a cast, booleans take the lowest bit
+                        bitsSetter = MethodHandles.explicitCastArguments(handle, MethodType.methodType(void.class, long.class));
+                    }
+                } catch (Throwable ignored) {}
+            }
+        }
+        return new StaticFieldAccessor(field.getName(), type, getter, setter, bitsGetter, bitsSetter);
+    }
+
+    /**
+     * The bits handles are only set for primitive fields. They carry booleans as 0/1, floating point numbers as their raw bit pattern
+     * and integers sign-extended, so one ()long and (long)void pair serves every primitive type.
+     */
+    record StaticFieldAccessor(String name, Class<?> type, MethodHandle getter, MethodHandle setter, MethodHandle bitsGetter, MethodHandle bitsSetter) implements ConfigAccessor {
+        @Override
+        public Object get() {
+            if (this.getter == null) throw new IllegalStateException("Field \"" + this.name + "\" is not readable!");
+            try {
+                return (Object) this.getter.invokeExact();
+            } catch (Throwable e) {
+                throw StaticFieldAccessor.rethrow(e);
+            }
+        }
+
+        @Override
+        public void set(Object value) {
+            if (this.setter == null) throw new IllegalStateException("Field \"" + this.name + "\" is not writable!");
+            try {
+                this.setter.invokeExact(value);
+            } catch (Throwable e) {
+                throw StaticFieldAccessor.rethrow(e);
+            }
+        }
+
+        private long bits() {
+            if (this.bitsGetter == null) throw new IllegalStateException("Field \"" + this.name + "\" is not readable!");
+            try {
+                return (long) this.bitsGetter.invokeExact();
+            } catch (Throwable e) {
+                throw StaticFieldAccessor.rethrow(e);
+            }
+        }
+
+        private void setBits(long bits) {
+            if (this.bitsSetter == null) throw new IllegalStateException("Field \"" + this.name + "\" is not writable!");
+            try {
+                this.bitsSetter.invokeExact(bits);
+            } catch (Throwable e) {
+                throw StaticFieldAccessor.rethrow(e);
+            }
+        }
+
+        @Override
+        public boolean getBoolean() {
+            return this.type == boolean.class ? this.bits() != 0 : ConfigAccessor.super.getBoolean();
+        }
+
+        @Override
+        public void setBoolean(boolean value) {
+            if (this.type == boolean.class) this.setBits(value ? 1 : 0);
+            else ConfigAccessor.super.setBoolean(value);
+        }
+
+        @Override
+        public byte getByte() {
+            return this.type == byte.class ? (byte) this.bits() : ConfigAccessor.super.getByte();
+        }
+
+        @Override
+        public void setByte(byte value) {
+            if (this.type == byte.class) this.setBits(value);
+            else ConfigAccessor.super.setByte(value);
+        }
+
+        @Override
+        public short getShort() {
+            return this.type == short.class ? (short) this.bits() : ConfigAccessor.super.getShort();
+        }
+
+        @Override
+        public void setShort(short value) {
+            if (this.type == short.class) this.setBits(value);
+            else ConfigAccessor.super.setShort(value);
+        }
+
+        @Override
+        public int getInt() {
+            return this.type == int.class ? (int) this.bits() : ConfigAccessor.super.getInt();
+        }
+
+        @Override
+        public void setInt(int value) {
+            if (this.type == int.class) this.setBits(value);
+            else ConfigAccessor.super.setInt(value);
+        }
+
+        @Override
+        public long getLong() {
+            return this.type == long.class ? this.bits() : ConfigAccessor.super.getLong();
+        }
+
+        @Override
+        public void setLong(long value) {
+            if (this.type == long.class) this.setBits(value);
+            else ConfigAccessor.super.setLong(value);
+        }
+
+        @Override
+        public float getFloat() {
+            return this.type == float.class ? Float.intBitsToFloat((int) this.bits()) : ConfigAccessor.super.getFloat();
+        }
+
+        @Override
+        public void setFloat(float value) {
+            if (this.type == float.class) this.setBits(Float.floatToRawIntBits(value));
+            else ConfigAccessor.super.setFloat(value);
+        }
+
+        @Override
+        public double getDouble() {
+            return this.type == double.class ? Double.longBitsToDouble(this.bits()) : ConfigAccessor.super.getDouble();
+        }
+
+        @Override
+        public void setDouble(double value) {
+            if (this.type == double.class) this.setBits(Double.doubleToRawLongBits(value));
+            else ConfigAccessor.super.setDouble(value);
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException runtime) return runtime;
+            if (e instanceof Error error) throw error;
+            return new RuntimeException(e);
+        }
+    }
+}
@@ -17,4 +17,51 @@ public class ConfigAnnotations {
     public @interface Comment {
         String comment();
     }
+
+    /**
+     * Writes a List or Map value as a block with one element per line instead of on a single line.
+     * Such values are also read and written element by element, so very large collections are not held in memory as text.
+     * Only applies to collections of builtin types when using ConfigTranscoders.JSON.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Multiline {
+    }
+
+    /**
+     * Makes the simpleconfig-processor annotation processor generate a ConfigBinding for this class,
+     * which SimpleConfig uses instead of reflection.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.TYPE)
+    public @interface GenerateBinding {
+    }
+
+    /**
+     * Keeps a binary cache of the parsed values next to the config file, which is used instead of parsing the file
+     * as long as the file has not been modified.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface SidecarCache {
+    }
+
+    /**
+     * Makes write() only replace the values that changed, in place, instead of regenerating the whole file.
+     * Comments, key order and unknown keys added to the file by hand are kept. Has no effect on classes with multiline entries.
+     * With SimpleConfig#setSyncWrites() enabled, the patched file replaces the config file atomically instead of being written in place.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface PatchWrites {
+    }
+
+    /**
+     * Decodes and encodes the values of independent entries concurrently, for configs with many expensive codecs.
+     * The written file is identical to the one written sequentially.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface ParallelCodecs {
+    }
 }
@@ -0,0 +1,41 @@
+package dev.smto.simpleconfig.api;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compile-time generated description of a config class, used instead of runtime reflection when present.
+ * Implementations are generated by the simpleconfig-processor annotation processor for classes annotated with
+ * ConfigAnnotations.GenerateBinding, and are named "SimpleConfigBinding_" followed by the binary class name without its package,
+ * with '$' replaced by '_'.
+ */
+public interface ConfigBinding {
+    String PREFIX = "SimpleConfigBinding_";
+
+    int size();
+    String key(int index);
+    ConfigDecoration decoration(int index);
+    String header(int index);
+
+    /**
+     * Returns the generic type of the field, in the format of Type#getTypeName().
+     */
+    String typeName(int index);
+
+    /**
+     * Returns the type of the field as codecs are resolved from it: lowercase simple names with type arguments in angle brackets,
+     * e.g. "list&lt;map&lt;string,integer&gt;&gt;". The codec itself is resolved at runtime, so mappings changed through ConfigCodecs#set() apply.
+     */
+    String codecType(int index);
+
+    /**
+     * Returns the kind of direct JSON format values of the field can be read and written with, e.g. "list&lt;int&gt;",
+     * or null if they always have to go through the codec.
+     */
+    @Nullable String valueFormat(int index);
+
+    /**
+     * Returns true if the field is annotated with ConfigAnnotations.Multiline.
+     */
+    boolean isMultiline(int index);
+    ConfigAccessor accessor(int index);
+}
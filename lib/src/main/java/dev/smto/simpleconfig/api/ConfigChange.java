@@ -0,0 +1,6 @@
+package dev.smto.simpleconfig.api;
+
+import org.jetbrains.annotations.Nullable;
+
+public record ConfigChange(String key, @Nullable Object oldValue, @Nullable Object newValue) {
+}
@@ -0,0 +1,11 @@
+package dev.smto.simpleconfig.api;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ConfigChangeListener {
+    /**
+     * Called once per read() or trySet() with every entry whose value actually changed.
+     */
+    void onChange(List<ConfigChange> changes);
+}
@@ -1,7 +1,32 @@
 package dev.smto.simpleconfig.api;
 
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 
-public record ConfigEntry<T>(String key, ConfigDecoration decorations, Field reference, Codec<T> codec) {}
\ No newline at end of file
+/**
+ * A single key of a config. The field reference is null for entries created from a generated ConfigBinding.
+ */
+public record ConfigEntry<T>(String key, ConfigDecoration decorations, @Nullable Field reference, Codec<T> codec, ConfigAccessor accessor) {
+    public ConfigEntry(String key, ConfigDecoration decorations, Field reference, Codec<T> codec) {
+        this(key, decorations, reference, codec, ConfigAccessor.ofStaticField(reference));
+    }
+
+    /**
+     * Encodes the current value of this entry using its codec.
+     */
+    @SuppressWarnings("unchecked")
+    public <O> DataResult<O> encode(DynamicOps<O> ops) {
+        return this.codec.encodeStart(ops, (T) this.accessor.get());
+    }
+
+    /**
+     * Decodes the given input using the codec of this entry, without applying it.
+     */
+    public <O> DataResult<T> decode(DynamicOps<O> ops, O input) {
+        return this.codec.parse(ops, input);
+    }
+}
@@ -0,0 +1,9 @@
+package dev.smto.simpleconfig.api;
+
+/**
+ * A point in the history of a config, as exchanged through SimpleConfig#createDelta() and SimpleConfig#applyDelta().
+ * The epoch is chosen randomly for every config instance, so versions of another instance, e.g. from before a restart,
+ * are never mistaken for its own.
+ */
+public record ConfigVersion(long epoch, long version) {
+}
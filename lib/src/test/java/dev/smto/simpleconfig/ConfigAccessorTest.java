@@ -0,0 +1,74 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigAccessor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads and writes static fields through the method handle accessors, including the primitive variants that do not box.
+ */
+class ConfigAccessorTest {
+    public static int number = 1;
+    public static float ratio = 0.5f;
+    public static double precise = 0.25;
+    public static boolean flag = false;
+    public static byte small = -1;
+    public static String text = "text";
+    public static final String fixed = "fixed";
+    public int instance = 1;
+
+    private static ConfigAccessor accessor(String name) throws NoSuchFieldException {
+        return ConfigAccessor.ofStaticField(ConfigAccessorTest.class.getField(name));
+    }
+
+    @Test
+    void primitiveVariantsMatchBoxedAccess() throws NoSuchFieldException {
+        var number = ConfigAccessorTest.accessor("number");
+        number.setInt(-7);
+        assertEquals(-7, ConfigAccessorTest.number);
+        assertEquals(-7, number.get());
+        number.set(9);
+        assertEquals(9, number.getInt());
+
+        var ratio = ConfigAccessorTest.accessor("ratio");
+        ratio.setFloat(-1.5f);
+        assertEquals(-1.5f, ConfigAccessorTest.ratio);
+        assertEquals(-1.5f, ratio.getFloat());
+
+        var precise = ConfigAccessorTest.accessor("precise");
+        precise.setDouble(Double.MIN_VALUE);
+        assertEquals(Double.MIN_VALUE, ConfigAccessorTest.precise);
+        assertEquals(Double.MIN_VALUE, precise.get());
+
+        var flag = ConfigAccessorTest.accessor("flag");
+        flag.setBoolean(true);
+        assertTrue(ConfigAccessorTest.flag);
+        assertTrue(flag.getBoolean());
+
+        var small = ConfigAccessorTest.accessor("small");
+        small.setByte((byte) -128);
+        assertEquals(-128, small.getByte());
+        assertEquals((byte) -128, small.get());
+    }
+
+    @Test
+    void objectFieldsAreAssigned() throws NoSuchFieldException {
+        var text = ConfigAccessorTest.accessor("text");
+        text.set("changed");
+        assertEquals("changed", ConfigAccessorTest.text);
+        assertEquals("changed", text.get());
+        text.set("text");
+    }
+
+    @Test
+    void inaccessibleFieldsThrowOnUse() throws NoSuchFieldException {
+        var fixed = ConfigAccessorTest.accessor("fixed");
+        assertEquals("fixed", fixed.get());
+        assertThrows(IllegalStateException.class, () -> fixed.set("changed"));
+
+        var instance = ConfigAccessorTest.accessor("instance");
+        assertThrows(IllegalStateException.class, instance::get);
+        assertThrows(IllegalStateException.class, () -> instance.setInt(2));
+    }
+}
@@ -0,0 +1,96 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import dev.smto.simpleconfig.api.ConfigBinding;
+import dev.smto.simpleconfig.api.ConfigDecoration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the binding generated by the annotation processor with what SimpleConfig reads from the same class through reflection.
+ */
+class ConfigBindingTest {
+    @TempDir
+    Path directory;
+
+    @ConfigAnnotations.GenerateBinding
+    public static class BoundConfig {
+        @ConfigAnnotations.Section(section = "General")
+        @ConfigAnnotations.Comment(comment = "How many")
+        public static int count = 1;
+        public static String name = "default";
+        public static double ratio = 0.5;
+        @ConfigAnnotations.Multiline
+        public static List<String> items = new ArrayList<>(List.of("a"));
+        public static Map<String, List<Integer>> groups = new HashMap<>();
+    }
+
+    @BeforeEach
+    void resetValues() {
+        BoundConfig.count = 1;
+        BoundConfig.name = "default";
+        BoundConfig.ratio = 0.5;
+        BoundConfig.items = new ArrayList<>(List.of("a"));
+        BoundConfig.groups = new HashMap<>();
+    }
+
+    private static ConfigBinding binding() throws ReflectiveOperationException {
+        var bindingClass = Class.forName("dev.smto.simpleconfig." + ConfigBinding.PREFIX + "ConfigBindingTest_BoundConfig");
+        return (ConfigBinding) bindingClass.getConstructor().newInstance();
+    }
+
+    @Test
+    void bindingMatchesReflection() throws ReflectiveOperationException {
+        var binding = ConfigBindingTest.binding();
+        Field[] fields = BoundConfig.class.getFields();
+        assertEquals(fields.length, binding.size());
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            Type type = field.getGenericType();
+            assertEquals(field.getName(), binding.key(i));
+            assertEquals(type.getTypeName(), binding.typeName(i));
+            assertEquals(ConfigCodecs.codecTypeOf(type), binding.codecType(i));
+            assertSame(ConfigCodecs.get(type), ConfigCodecs.forCodecType(binding.codecType(i)));
+            assertEquals(JsonValueFormat.of(type) == null, JsonValueFormat.forName(binding.valueFormat(i)) == null, field.getName());
+            assertSame(PrimitiveFormat.of(field.getType()), PrimitiveFormat.of(binding.typeName(i)));
+            assertEquals(field.isAnnotationPresent(ConfigAnnotations.Multiline.class), binding.isMultiline(i));
+
+            var section = field.getAnnotation(ConfigAnnotations.Section.class);
+            var comment = field.getAnnotation(ConfigAnnotations.Comment.class);
+            var decoration = new ConfigDecoration(section == null ? null : section.section(), comment == null ? null : comment.comment());
+            assertEquals(decoration, binding.decoration(i));
+            assertEquals(EntryState.renderHeader(decoration), binding.header(i));
+        }
+    }
+
+    @Test
+    void bindingAccessorsReadAndWriteFields() throws ReflectiveOperationException, IOException {
+        var binding = ConfigBindingTest.binding();
+        int count = BoundConfig.class.getFields().length;
+        for (int i = 0; i < count; i++) {
+            assertEquals(BoundConfig.class.getField(binding.key(i)).get(null), binding.accessor(i).get());
+        }
+
+        Path file = this.directory.resolve("bound.conf");
+        Files.writeString(file, "count=5\nname=\"bound\"\nratio=2.5\nitems=[\n    \"x\",\n    \"y\"\n]\ngroups={\"a\":[1,2]}\n");
+        new SimpleConfig(file, BoundConfig.class);
+        assertEquals(5, BoundConfig.count);
+        assertEquals("bound", BoundConfig.name);
+        assertEquals(2.5, BoundConfig.ratio);
+        assertEquals(List.of("x", "y"), BoundConfig.items);
+        assertEquals(Map.of("a", List.of(1, 2)), BoundConfig.groups);
+    }
+}
@@ -0,0 +1,47 @@
+package dev.smto.simpleconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replaces files through ConfigFiles, checking that nothing but the content changes on disk.
+ */
+class ConfigFilesTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replacingKeepsPermissions() throws IOException {
+        Path file = this.directory.resolve("test.conf");
+        ConfigFiles.writeAtomically(file, "a=1\n".getBytes(StandardCharsets.UTF_8), true);
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) return;
+        var permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(file, permissions);
+
+        ConfigFiles.writeAtomically(file, "a=2\n".getBytes(StandardCharsets.UTF_8), true);
+        assertEquals("a=2\n", Files.readString(file));
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+
+        ConfigFiles.writeAtomically(file, out -> out.write("a=3\n"), false, null);
+        assertEquals("a=3\n", Files.readString(file));
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void noTemporaryFilesAreLeft() throws IOException {
+        Path file = this.directory.resolve("test.conf");
+        ConfigFiles.writeAtomically(file, "a=1\n".getBytes(StandardCharsets.UTF_8), true);
+        ConfigFiles.writeAtomically(file, out -> out.write("a=2\n"), true, null);
+        try (var files = Files.list(this.directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
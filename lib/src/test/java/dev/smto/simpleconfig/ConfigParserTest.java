@@ -0,0 +1,115 @@
+package dev.smto.simpleconfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares ConfigParser with the split-based reader it replaced.
+ */
+class ConfigParserTest {
+    /**
+     * Returns "key=value" for every line with a value and "key" for every line with a key but no value, in file order.
+     */
+    private static List<String> parse(String content) {
+        var out = new ArrayList<String>();
+        ConfigParser parser = new ConfigParser(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        while (parser.next()) {
+            if (parser.isBlank()) continue;
+            out.add(parser.hasValue() ? parser.key() + "=" + parser.value() : parser.key());
+        }
+        return out;
+    }
+
+    // The reader before ConfigParser: readAllLines, then line.split("#")[0].trim().split("="), rejoining everything after the key
+    private static List<String> parseLegacy(String content) throws IOException {
+        var out = new ArrayList<String>();
+        var reader = new BufferedReader(new StringReader(content));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            var data = line.split("#")[0].trim().split("=");
+            if (data[0].trim().isEmpty()) continue;
+            if (data.length < 2) {
+                out.add(data[0].trim());
+                continue;
+            }
+            StringBuilder value = new StringBuilder(data[1]);
+            for (int i = 2; i < data.length; i++) {
+                value.append("=").append(data[i]);
+            }
+            out.add(data[0].trim() + "=" + value.toString().trim());
+        }
+        return out;
+    }
+
+    private static void assertEquivalent(String content, List<String> expected) throws IOException {
+        assertEquals(expected, ConfigParserTest.parseLegacy(content), "legacy reader");
+        assertEquals(expected, ConfigParserTest.parse(content), "ConfigParser");
+    }
+
+    @Test
+    void separatorInsideValue() throws IOException {
+        ConfigParserTest.assertEquivalent("a=b=c\nb==c\nc = x = y \n", List.of("a=b=c", "b==c", "c=x = y"));
+    }
+
+    @Test
+    void blankLines() throws IOException {
+        ConfigParserTest.assertEquivalent("\n\na=1\n   \n\t\nb=2\n\n", List.of("a=1", "b=2"));
+    }
+
+    @Test
+    void comments() throws IOException {
+        ConfigParserTest.assertEquivalent("# comment\n  # indented = comment\na=1 # trailing\nb=2#tight\n#c=3\n", List.of("a=1", "b=2"));
+    }
+
+    @Test
+    void lineEndings() throws IOException {
+        ConfigParserTest.assertEquivalent("a=1\r\nb=2\rc=3\n\r\nd=4", List.of("a=1", "b=2", "c=3", "d=4"));
+    }
+
+    @Test
+    void duplicateKeys() throws IOException {
+        String content = "a=1\nb=2\na=3\n";
+        ConfigParserTest.assertEquivalent(content, List.of("a=1", "b=2", "a=3"));
+        // The last occurrence is the one that read() applies and patch writes replace
+        var bytes = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        var layout = ConfigLayout.scan(bytes, new byte[0], Map.of("a", 0, "b", 1));
+        assertEquals("3", layout.text(bytes, 0));
+        assertEquals("2", layout.text(bytes, 1));
+    }
+
+    @Test
+    void missingTrailingNewline() throws IOException {
+        ConfigParserTest.assertEquivalent("a=1\nb=\"two\"", List.of("a=1", "b=\"two\""));
+        ConfigParserTest.assertEquivalent("a=1 # comment", List.of("a=1"));
+    }
+
+    @Test
+    void missingValue() throws IOException {
+        ConfigParserTest.assertEquivalent("a\nb=\nc=   # comment\n=d\n", List.of("a", "b", "c"));
+    }
+
+    @Test
+    void whitespaceAndUnicode() throws IOException {
+        ConfigParserTest.assertEquivalent("\t key \t=\t \"v ä\" \t\nschlüssel=\"€\"\n", List.of("key=\"v ä\"", "schlüssel=\"€\""));
+    }
+
+    // String#split dropped trailing empty strings, so trailing '=' of a value (e.g. base64 padding) were lost.
+    // ConfigParser keeps everything after the first '=', which is the intended behavior.
+    @Test
+    void trailingSeparatorsAreKept() throws IOException {
+        assertEquals(List.of("a=b"), ConfigParserTest.parseLegacy("a=b==\n"));
+        assertEquals(List.of("a=b=="), ConfigParserTest.parse("a=b==\n"));
+        assertEquals(List.of("a"), ConfigParserTest.parseLegacy("a==\n"));
+        assertEquals(List.of("a=="), ConfigParserTest.parse("a==\n"));
+    }
+}
@@ -0,0 +1,86 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads configs through forged sidecars, which hold a different value than the config file, to see whether the cache is used.
+ */
+class ConfigSidecarTest {
+    @TempDir
+    Path directory;
+
+    @ConfigAnnotations.SidecarCache
+    public static class CachedConfig {
+        public static int count = 1;
+        public static String name = "default";
+    }
+
+    @BeforeEach
+    void resetValues() {
+        CachedConfig.count = 1;
+        CachedConfig.name = "default";
+    }
+
+    /**
+     * Rewrites the sidecar of the file with the given fingerprint, type of the "count" entry and cached value 42 for it.
+     */
+    private void forge(Path file, int fingerprint, String type) throws IOException {
+        Path sidecar = ConfigSidecar.pathOf(file);
+        var contents = ConfigSidecar.read(sidecar);
+        assertNotNull(contents);
+        var entries = new ArrayList<ConfigSidecar.Entry>();
+        for (ConfigSidecar.Entry entry : contents.entries()) {
+            if (entry.key().equals("count")) entry = new ConfigSidecar.Entry(entry.key(), type, "42", entry.typed(), entry.typed() ? 42 : null);
+            entries.add(entry);
+        }
+        ConfigSidecar.write(sidecar, fingerprint, contents.state(), entries);
+    }
+
+    private String countType(Path file) throws IOException {
+        return ConfigSidecar.read(ConfigSidecar.pathOf(file)).entries().stream().filter(entry -> entry.key().equals("count")).findFirst().orElseThrow().type();
+    }
+
+    @Test
+    void matchingSidecarIsUsed() throws IOException {
+        Path file = this.directory.resolve("cached.conf");
+        new SimpleConfig(file, CachedConfig.class);
+        this.forge(file, ConfigSchema.of(CachedConfig.class).fingerprint(), this.countType(file));
+        new SimpleConfig(file, CachedConfig.class);
+        assertEquals(42, CachedConfig.count);
+    }
+
+    @Test
+    void sidecarOfModifiedFileIsIgnored() throws IOException {
+        Path file = this.directory.resolve("cached.conf");
+        new SimpleConfig(file, CachedConfig.class);
+        this.forge(file, ConfigSchema.of(CachedConfig.class).fingerprint(), this.countType(file));
+        // Same size, so only the content hash tells the versions apart
+        Files.writeString(file, Files.readString(file).replace("count=1", "count=7"));
+        new SimpleConfig(file, CachedConfig.class);
+        assertEquals(7, CachedConfig.count);
+    }
+
+    @Test
+    void sidecarOfOtherSchemaIsIgnored() throws IOException {
+        Path file = this.directory.resolve("cached.conf");
+        new SimpleConfig(file, CachedConfig.class);
+        String type = this.countType(file);
+        this.forge(file, ConfigSchema.of(CachedConfig.class).fingerprint() + 1, type);
+        new SimpleConfig(file, CachedConfig.class);
+        assertEquals(1, CachedConfig.count);
+
+        this.forge(file, ConfigSchema.of(CachedConfig.class).fingerprint(), type + "?");
+        new SimpleConfig(file, CachedConfig.class);
+        assertEquals(1, CachedConfig.count);
+    }
+}
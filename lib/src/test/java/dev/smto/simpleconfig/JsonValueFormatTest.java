@@ -0,0 +1,162 @@
+package dev.smto.simpleconfig;
+
+import com.google.gson.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares JsonValueFormat with the text Gson produces and reads for the builtin codecs.
+ */
+class JsonValueFormatTest {
+    private static String string;
+    private static char character;
+    private static float floatValue;
+    private static double doubleValue;
+    private static int intValue;
+    private static long longValue;
+    private static List<String> strings;
+    private static Map<String, List<Double>> nested;
+    private static List<Map<String, List<Integer>>> deeplyNested;
+
+    private static JsonValueFormat format(String field) throws NoSuchFieldException {
+        Type type = JsonValueFormatTest.class.getDeclaredField(field).getGenericType();
+        var format = JsonValueFormat.of(type);
+        assertNotNull(format, field);
+        return format;
+    }
+
+    // What the builtin codecs produce through JsonOps, chars are encoded as strings
+    private static JsonElement toJson(Object value) {
+        if (value instanceof String s) return new JsonPrimitive(s);
+        if (value instanceof Character c) return new JsonPrimitive(String.valueOf(c));
+        if (value instanceof Number n) return new JsonPrimitive(n);
+        if (value instanceof Boolean b) return new JsonPrimitive(b);
+        if (value instanceof List<?> list) {
+            var array = new JsonArray();
+            for (Object element : list) array.add(JsonValueFormatTest.toJson(element));
+            return array;
+        }
+        if (value instanceof Map<?, ?> map) {
+            var object = new JsonObject();
+            for (var entry : map.entrySet()) object.add((String) entry.getKey(), JsonValueFormatTest.toJson(entry.getValue()));
+            return object;
+        }
+        throw new IllegalArgumentException(String.valueOf(value));
+    }
+
+    /**
+     * Encodes like Gson does and decodes back to an equal value.
+     */
+    private static void assertRoundTrip(JsonValueFormat format, Object value) {
+        String encoded = format.encode(value);
+        assertEquals(JsonValueFormatTest.toJson(value).toString(), encoded);
+        assertEquals(value, format.decode(encoded));
+    }
+
+    /**
+     * Either decodes to the same value Gson reads, or rejects the text so that the codec handles it.
+     */
+    private static void assertDecodesLikeGson(JsonValueFormat format, String text) {
+        Object decoded = format.decode(text);
+        if (decoded != null) assertEquals(JsonParser.parseString(text), JsonValueFormatTest.toJson(decoded), text);
+    }
+
+    @Test
+    void stringsWithEscapes() throws NoSuchFieldException {
+        var format = JsonValueFormatTest.format("string");
+        for (String value : List.of("", "plain", "quote\" backslash\\ slash/", "\t\b\n\r\f", "\u0000\u0001\u001f\u007f", "<html> & 'apostrophes' =")) {
+            JsonValueFormatTest.assertRoundTrip(format, value);
+        }
+        JsonValueFormatTest.assertDecodesLikeGson(format, "\"escaped \\/ \\u0041\\u00e9 \\\"\"");
+        assertNull(format.decode("\"unterminated"));
+        assertNull(format.decode("'single quotes'"));
+    }
+
+    @Test
+    void unicode() throws NoSuchFieldException {
+        var format = JsonValueFormatTest.format("string");
+        for (String value : List.of("ünïcödé €", "日本語", "emoji 😀", "separators \u2028 \u2029", "lone surrogate \uD800")) {
+            JsonValueFormatTest.assertRoundTrip(format, value);
+        }
+        var character = JsonValueFormatTest.format("character");
+        for (char value : new char[] {'a', '"', '\n', 'é', ' '}) {
+            JsonValueFormatTest.assertRoundTrip(character, value);
+        }
+    }
+
+    @Test
+    void numbers() throws NoSuchFieldException {
+        var floats = JsonValueFormatTest.format("floatValue");
+        for (float value : new float[] {0f, -0f, 1.5f, 0.1f, 1e-7f, 3.4e38f, Float.MIN_VALUE}) {
+            JsonValueFormatTest.assertRoundTrip(floats, value);
+        }
+        var doubles = JsonValueFormatTest.format("doubleValue");
+        for (double value : new double[] {0d, -0d, 1.5d, 0.1d, 1e20d, 1e-7d, Double.MAX_VALUE, Double.MIN_VALUE}) {
+            JsonValueFormatTest.assertRoundTrip(doubles, value);
+        }
+        var ints = JsonValueFormatTest.format("intValue");
+        for (int value : new int[] {0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            JsonValueFormatTest.assertRoundTrip(ints, value);
+        }
+        var longs = JsonValueFormatTest.format("longValue");
+        JsonValueFormatTest.assertRoundTrip(longs, 123456789012345678L);
+        // More than 18 digits are left to the codec
+        assertEquals(JsonValueFormatTest.toJson(Long.MAX_VALUE).toString(), longs.encode(Long.MAX_VALUE));
+        assertNull(longs.decode(String.valueOf(Long.MAX_VALUE)));
+        for (String text : List.of("1e3", "1.0", "01", "-", "2147483648", " 7 ")) {
+            JsonValueFormatTest.assertDecodesLikeGson(ints, text);
+        }
+        for (String text : List.of("1E+2", "-0.0", "1.25e-3", ".5", "5.")) {
+            JsonValueFormatTest.assertDecodesLikeGson(doubles, text);
+        }
+    }
+
+    @Test
+    void nonFiniteNumbers() throws NoSuchFieldException {
+        var doubles = JsonValueFormatTest.format("doubleValue");
+        var floats = JsonValueFormatTest.format("floatValue");
+        // Written exactly like Gson writes them, but not valid JSON, so reading them is left to the codec
+        for (double value : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            assertEquals(JsonValueFormatTest.toJson(value).toString(), doubles.encode(value));
+            assertNull(doubles.decode(doubles.encode(value)));
+        }
+        for (float value : new float[] {Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY}) {
+            assertEquals(JsonValueFormatTest.toJson(value).toString(), floats.encode(value));
+            assertNull(floats.decode(floats.encode(value)));
+        }
+    }
+
+    @Test
+    void nestedValues() throws NoSuchFieldException {
+        JsonValueFormatTest.assertRoundTrip(JsonValueFormatTest.format("strings"), new ArrayList<>(List.of("a", "b\"c", "é")));
+        JsonValueFormatTest.assertRoundTrip(JsonValueFormatTest.format("strings"), new ArrayList<>());
+
+        var nested = new LinkedHashMap<String, List<Double>>();
+        nested.put("first", new ArrayList<>(List.of(1.5, -0.0, 1e20)));
+        nested.put("key \"with\" escapes\n", new ArrayList<>());
+        nested.put("ünïcödé", new ArrayList<>(List.of(0.1)));
+        JsonValueFormatTest.assertRoundTrip(JsonValueFormatTest.format("nested"), nested);
+
+        var inner = new LinkedHashMap<String, List<Integer>>();
+        inner.put("x", new ArrayList<>(List.of(1, 2, 3)));
+        inner.put("y", new ArrayList<>());
+        var deeplyNested = new ArrayList<Map<String, List<Integer>>>(List.of(inner, new LinkedHashMap<>()));
+        var format = JsonValueFormatTest.format("deeplyNested");
+        JsonValueFormatTest.assertRoundTrip(format, deeplyNested);
+        JsonValueFormatTest.assertDecodesLikeGson(format, "[ { \"x\" : [ 1 , 2 ] } , { } ]");
+        JsonValueFormatTest.assertDecodesLikeGson(format, "[{\"x\":[1,2],\"x\":[3]}]");
+        assertNull(format.decode("[{\"x\":[1,2]},]"));
+        assertNull(format.decode("[{\"x\":[1,\"2\"]}]"));
+    }
+
+    @Test
+    void rejectsValuesOfOtherTypes() throws NoSuchFieldException {
+        assertNull(JsonValueFormatTest.format("strings").encode(new ArrayList<>(Arrays.asList("a", null))));
+        assertNull(JsonValueFormatTest.format("nested").encode(Map.of("a", List.of(1))));
+        assertNull(JsonValueFormatTest.format("intValue").encode(1L));
+    }
+}
@@ -0,0 +1,41 @@
+package dev.smto.simpleconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleConfigRegistryTest {
+    @TempDir
+    Path directory;
+
+    public static class RegistryConfig {
+        public static int value = 1;
+    }
+
+    @Test
+    void failedRegistrationCanBeRetried() throws IOException {
+        // A directory in place of the config file cannot be read
+        Path file = Files.createDirectory(this.directory.resolve("config.conf"));
+        try (var registry = new SimpleConfigRegistry(1)) {
+            var failed = registry.register(file, RegistryConfig.class);
+            assertThrows(CompletionException.class, failed::join);
+            assertTrue(registry.getFailures().containsKey(file));
+
+            Path other = this.directory.resolve("other.conf");
+            registry.register(other, RegistryConfig.class).join();
+            assertThrows(IllegalArgumentException.class, () -> registry.register(other, RegistryConfig.class));
+
+            Files.delete(file);
+            var retried = registry.register(file, RegistryConfig.class);
+            assertNotNull(retried.join());
+            assertSame(retried.join(), registry.get(file));
+            assertFalse(registry.getFailures().containsKey(file));
+        }
+    }
+}
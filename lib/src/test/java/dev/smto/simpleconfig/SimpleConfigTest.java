@@ -0,0 +1,245 @@
+package dev.smto.simpleconfig;
+
+import dev.smto.simpleconfig.api.ConfigAnnotations;
+import dev.smto.simpleconfig.api.ConfigVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads and writes config files through SimpleConfig, checking that values written by hand are never lost.
+ */
+class SimpleConfigTest {
+    @TempDir
+    Path directory;
+
+    public static class MultilineConfig {
+        @ConfigAnnotations.Multiline
+        public static List<String> items = new ArrayList<>(List.of("a"));
+        public static int count = 1;
+        public static String name = "default";
+    }
+
+    public static class FinalConfig {
+        public static final String fixed = "fixed";
+        public static int count = 1;
+    }
+
+    @ConfigAnnotations.PatchWrites
+    public static class PatchConfig {
+        public static int count = 1;
+        public static String name = "default";
+        public static boolean flag = true;
+    }
+
+    // Enough entries to be decoded and encoded in parallel
+    @ConfigAnnotations.ParallelCodecs
+    public static class ParallelConfig {
+        public static int v0, v1, v2, v3, v4, v5, v6, v7, v8, v9, v10, v11, v12, v13, v14, v15, v16, v17, v18, v19;
+        public static List<String> list = new ArrayList<>();
+    }
+
+    // Same keys and types as ReceiverConfig, so deltas can be exchanged between them
+    public static class SenderConfig {
+        public static int count = 1;
+        public static String name = "default";
+    }
+
+    public static class ReceiverConfig {
+        public static int count = 1;
+        public static String name = "default";
+    }
+
+    @BeforeEach
+    void resetValues() {
+        MultilineConfig.items = new ArrayList<>(List.of("a"));
+        MultilineConfig.count = 1;
+        MultilineConfig.name = "default";
+        FinalConfig.count = 1;
+        PatchConfig.count = 1;
+        PatchConfig.name = "default";
+        PatchConfig.flag = true;
+        SenderConfig.count = 1;
+        SenderConfig.name = "default";
+        ReceiverConfig.count = 1;
+        ReceiverConfig.name = "default";
+    }
+
+    @Test
+    void failedAssignmentIsNotPublished() {
+        var config = new SimpleConfig(this.directory.resolve("final.conf"), FinalConfig.class);
+        config.setAtomicUpdates(true);
+        assertFalse(config.trySet("fixed", "\"changed\""));
+        assertEquals("fixed", config.values().getString("fixed"));
+        assertTrue(config.trySet("count", "2"));
+        assertEquals(2, config.values().getInt("count"));
+    }
+
+    @Test
+    void unclosedMultilineBlockKeepsFollowingKeys() throws IOException {
+        Path file = this.directory.resolve("multiline.conf");
+        Files.writeString(file, "items=[\n    \"x\",\n    \"y\"\ncount=5\nname=\"kept\"\n");
+        var config = new SimpleConfig(file, MultilineConfig.class);
+        assertEquals(List.of("a"), MultilineConfig.items);
+        assertEquals(5, MultilineConfig.count);
+        assertEquals("kept", MultilineConfig.name);
+
+        config.write();
+        String written = Files.readString(file);
+        assertTrue(written.contains("count=5\n"), written);
+        assertTrue(written.contains("name=\"kept\"\n"), written);
+    }
+
+    @Test
+    void setAllRollsBackEveryValueIfOneFails() {
+        var config = new SimpleConfig(this.directory.resolve("final.conf"), FinalConfig.class);
+        config.setAtomicUpdates(true);
+        var values = new LinkedHashMap<String, String>();
+        values.put("count", "5");
+        values.put("fixed", "\"changed\"");
+        assertFalse(config.setAll(values));
+        assertEquals(1, FinalConfig.count);
+        assertEquals(1, config.values().getInt("count"));
+
+        assertFalse(config.setAll(Map.of("count", "5", "unknown", "1")));
+        assertFalse(config.setAll(Map.of("count", "not a number")));
+        assertEquals(1, FinalConfig.count);
+
+        assertTrue(config.setAll(Map.of("count", "5")));
+        assertEquals(5, FinalConfig.count);
+        assertEquals(5, config.values().getInt("count"));
+    }
+
+    @Test
+    void setAllLeavesWritingToTheCaller() throws IOException {
+        Path file = this.directory.resolve("final.conf");
+        var config = new SimpleConfig(file, FinalConfig.class);
+        String written = Files.readString(file);
+        assertTrue(config.setAll(Map.of("count", "5")));
+        assertTrue(config.trySet("count", "6"));
+        assertEquals(written, Files.readString(file));
+        config.write();
+        assertTrue(Files.readString(file).contains("count=6\n"));
+    }
+
+    @Test
+    void patchWriteKeepsHandWrittenContent() throws IOException {
+        Path file = this.directory.resolve("patch.conf");
+        Files.writeString(file, "# written by hand\ncount = 7 # seven\nunknown=1\nname\n");
+        var config = new SimpleConfig(file, PatchConfig.class);
+        assertEquals(7, PatchConfig.count);
+        String written = Files.readString(file);
+        assertTrue(written.startsWith("# written by hand\ncount = 7 # seven\nunknown=1\nname=\"default\"\n"), written);
+        assertTrue(written.endsWith("flag=true\n"), written);
+        assertEquals(1, written.split("name", -1).length - 1, written);
+
+        assertTrue(config.trySet("count", "12"));
+        assertTrue(config.trySet("name", "\"changed\""));
+        config.write();
+        written = Files.readString(file);
+        assertTrue(written.startsWith("# written by hand\ncount = 12 # seven\nunknown=1\nname=\"changed\"\n"), written);
+        assertEquals(1, written.split("flag", -1).length - 1, written);
+
+        PatchConfig.count = 1;
+        PatchConfig.name = "default";
+        new SimpleConfig(file, PatchConfig.class);
+        assertEquals(12, PatchConfig.count);
+        assertEquals("changed", PatchConfig.name);
+        assertEquals(written, Files.readString(file));
+    }
+
+    @Test
+    void writeBehindWritesOnFlush() throws IOException {
+        Path file = this.directory.resolve("final.conf");
+        var config = new SimpleConfig(file, FinalConfig.class);
+        config.setWriteBehind(60_000);
+        assertTrue(config.trySet("count", "5"));
+        assertTrue(Files.readString(file).contains("count=1\n"));
+        config.flush();
+        assertTrue(Files.readString(file).contains("count=5\n"));
+
+        assertTrue(config.trySet("count", "6"));
+        config.setWriteBehind(0);
+        assertTrue(Files.readString(file).contains("count=6\n"));
+    }
+
+    @Test
+    void writeBehindDoesNotKeepConfigsAlive() throws InterruptedException {
+        var config = new SimpleConfig(this.directory.resolve("final.conf"), FinalConfig.class);
+        config.setWriteBehind(60_000);
+        var reference = new WeakReference<>(config);
+        config = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    void deltaOnlyCarriesChangesOfTheSameInstance() {
+        var sender = new SimpleConfig(this.directory.resolve("sender.conf"), SenderConfig.class);
+        var receiver = new SimpleConfig(this.directory.resolve("receiver.conf"), ReceiverConfig.class);
+        ConfigVersion version = receiver.applyDelta(ByteBuffer.wrap(sender.createDelta(null)));
+        assertNotNull(version);
+
+        assertTrue(sender.trySet("count", "5"));
+        version = receiver.applyDelta(ByteBuffer.wrap(sender.createDelta(version)));
+        assertNotNull(version);
+        assertEquals(5, ReceiverConfig.count);
+
+        // Unchanged entries are not part of the delta, so local changes on the receiver are kept
+        assertTrue(receiver.trySet("name", "\"local\""));
+        assertNotNull(receiver.applyDelta(ByteBuffer.wrap(sender.createDelta(version))));
+        assertEquals("local", ReceiverConfig.name);
+
+        // Versions of a previous instance, e.g. from before a restart, get every entry
+        sender.write();
+        var restarted = new SimpleConfig(this.directory.resolve("sender.conf"), SenderConfig.class);
+        assertNotEquals(version.epoch(), receiver.applyDelta(ByteBuffer.wrap(restarted.createDelta(version))).epoch());
+        assertEquals("default", ReceiverConfig.name);
+        assertEquals(5, ReceiverConfig.count);
+
+        assertNull(receiver.applyDelta(ByteBuffer.wrap(new SimpleConfig(this.directory.resolve("final.conf"), FinalConfig.class).createDelta(null))));
+    }
+
+    @Test
+    void parallelCodecsKeepTheOrderOfEntries() throws Exception {
+        Path file = this.directory.resolve("parallel.conf");
+        var content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("v").append(i).append("=").append(i * 3).append("\n");
+        }
+        content.append("list=[\"a\",\"b\"]\n");
+        Files.writeString(file, content);
+        var parallel = new SimpleConfig(file, ParallelConfig.class);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i * 3, ParallelConfig.class.getField("v" + i).getInt(null));
+        }
+        assertEquals(List.of("a", "b"), ParallelConfig.list);
+        assertEquals(content.toString(), Files.readString(file));
+
+        ParallelConfig.v7 = 70;
+        parallel.write();
+        Path sequentialFile = this.directory.resolve("sequential.conf");
+        var sequential = new SimpleConfig(sequentialFile, ParallelConfig.class);
+        sequential.setParallelCodecs(false);
+        // Deleted, so the sequential write is not skipped for producing the same content
+        Files.delete(sequentialFile);
+        sequential.write();
+        assertEquals(Files.readString(sequentialFile), Files.readString(file));
+        assertTrue(Files.readString(file).contains("v7=70\n"));
+    }
+}
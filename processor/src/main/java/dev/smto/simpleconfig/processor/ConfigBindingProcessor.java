@@ -0,0 +1,350 @@
+package dev.smto.simpleconfig.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a ConfigBinding for every class annotated with ConfigAnnotations.GenerateBinding.
+ * The binding reads and writes the static fields directly and carries the codec types, value formats and pre-rendered decorations
+ * resolved at compile time, so SimpleConfig does not need reflection for such classes.
+ * This module does not depend on the library itself, all library types are referenced by name.
+ */
+@SupportedAnnotationTypes(ConfigBindingProcessor.GENERATE_BINDING)
+public class ConfigBindingProcessor extends AbstractProcessor {
+    static final String GENERATE_BINDING = "dev.smto.simpleconfig.api.ConfigAnnotations.GenerateBinding";
+    private static final String SECTION = "dev.smto.simpleconfig.api.ConfigAnnotations.Section";
+    private static final String COMMENT = "dev.smto.simpleconfig.api.ConfigAnnotations.Comment";
+    private static final String PREFIX = "SimpleConfigBinding_";
+    private static final String MULTILINE = "dev.smto.simpleconfig.api.ConfigAnnotations.Multiline";
+
+    // Boxed and string types by qualified name, with the kind of their direct JSON format
+    private static final Map<String, String> VALUE_KINDS = new HashMap<>();
+    static {{
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Boolean", "boolean");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Byte", "byte");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Short", "short");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Integer", "int");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Long", "long");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Float", "float");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Double", "double");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.Character", "char");
+        ConfigBindingProcessor.VALUE_KINDS.put("java.lang.String", "string");
+    }}
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!(element instanceof TypeElement type) || element.getKind() != ElementKind.CLASS) {
+                    this.error(element, "@GenerateBinding can only be used on classes");
+                    continue;
+                }
+                try {
+                    this.generate(type);
+                } catch (IOException e) {
+                    this.error(element, "Could not write config binding: " + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                this.error(type, "Config classes with a generated binding must not be private");
+                return;
+            }
+        }
+        var elements = this.processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String className = ConfigBindingProcessor.PREFIX + (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_');
+
+        var collected = new LinkedHashSet<VariableElement>();
+        this.collectFields(type, collected);
+        var fields = new ArrayList<>(collected);
+
+        var out = new StringBuilder();
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("@javax.annotation.processing.Generated(\"").append(ConfigBindingProcessor.class.getName()).append("\")\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(className).append(" implements dev.smto.simpleconfig.api.ConfigBinding {\n");
+
+        out.append("    private static final String[] KEYS = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(ConfigBindingProcessor.literal(fields.get(i).getSimpleName().toString()));
+        }
+        out.append("};\n");
+        out.append("    private static final String[] HEADERS = {");
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            out.append(i == 0 ? "" : ", ").append(ConfigBindingProcessor.literal(ConfigBindingProcessor.renderHeader(this.annotationValue(field, ConfigBindingProcessor.SECTION, "section"), this.annotationValue(field, ConfigBindingProcessor.COMMENT, "comment"))));
+        }
+        out.append("};\n");
+        out.append("    private static final String[] TYPE_NAMES = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(ConfigBindingProcessor.literal(this.typeNameOf(fields.get(i).asType())));
+        }
+        out.append("};\n");
+        out.append("    private static final String[] CODEC_TYPES = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(ConfigBindingProcessor.literal(this.codecTypeOf(fields.get(i).asType())));
+        }
+        out.append("};\n");
+        out.append("    private static final String[] VALUE_FORMATS = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(ConfigBindingProcessor.literal(this.valueFormatOf(fields.get(i).asType())));
+        }
+        out.append("};\n");
+        out.append("    private static final boolean[] MULTILINE = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(this.hasAnnotation(fields.get(i), ConfigBindingProcessor.MULTILINE));
+        }
+        out.append("};\n\n");
+
+        out.append("    @Override\n    public int size() {\n        return ").append(fields.size()).append(";\n    }\n\n");
+        out.append("    @Override\n    public String key(int index) {\n        return KEYS[index];\n    }\n\n");
+        out.append("    @Override\n    public String header(int index) {\n        return HEADERS[index];\n    }\n\n");
+        out.append("    @Override\n    public String typeName(int index) {\n        return TYPE_NAMES[index];\n    }\n\n");
+        out.append("    @Override\n    public String codecType(int index) {\n        return CODEC_TYPES[index];\n    }\n\n");
+        out.append("    @Override\n    public String valueFormat(int index) {\n        return VALUE_FORMATS[index];\n    }\n\n");
+        out.append("    @Override\n    public boolean isMultiline(int index) {\n        return MULTILINE[index];\n    }\n\n");
+
+        out.append("    @Override\n    public dev.smto.simpleconfig.api.ConfigDecoration decoration(int index) {\n        switch (index) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            out.append("            case ").append(i).append(": return new dev.smto.simpleconfig.api.ConfigDecoration(")
+                    .append(ConfigBindingProcessor.literal(this.annotationValue(field, ConfigBindingProcessor.SECTION, "section"))).append(", ")
+                    .append(ConfigBindingProcessor.literal(this.annotationValue(field, ConfigBindingProcessor.COMMENT, "comment"))).append(");\n");
+        }
+        out.append("            default: throw new IndexOutOfBoundsException(index);\n        }\n    }\n\n");
+
+        out.append("    @Override\n    public dev.smto.simpleconfig.api.ConfigAccessor accessor(int index) {\n        switch (index) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            this.appendAccessor(out, i, fields.get(i));
+        }
+        out.append("            default: throw new IndexOutOfBoundsException(index);\n        }\n    }\n}\n");
+
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + className, type).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private void appendAccessor(StringBuilder out, int index, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String target = ((TypeElement) field.getEnclosingElement()).getQualifiedName() + "." + name;
+        boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+        boolean isFinal = field.getModifiers().contains(Modifier.FINAL);
+        String notReadable = "throw new IllegalStateException(" + ConfigBindingProcessor.literal("Field \"" + name + "\" is not readable!") + ");";
+        String notWritable = "throw new IllegalStateException(" + ConfigBindingProcessor.literal("Field \"" + name + "\" is not writable!") + ");";
+        String castType = this.processingEnv.getTypeUtils().erasure(field.asType()).toString();
+
+        out.append("            case ").append(index).append(": return new dev.smto.simpleconfig.api.ConfigAccessor() {\n");
+        out.append("                @Override\n                public Object get() {\n                    ");
+        out.append(isStatic ? "return " + target + ";" : notReadable).append("\n                }\n\n");
+        out.append("                @Override\n                public void set(Object value) {\n                    ");
+        out.append(isStatic && !isFinal ? target + " = (" + castType + ") value;" : isStatic ? notWritable : notReadable).append("\n                }\n");
+        // Primitive fields also get the primitive variants, so they are accessed without boxing
+        var kind = field.asType().getKind();
+        if (kind.isPrimitive() && kind != TypeKind.CHAR && isStatic) {
+            String primitive = kind.name().toLowerCase(Locale.ROOT);
+            String suffix = Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+            out.append("\n                @Override\n                public ").append(primitive).append(" get").append(suffix).append("() {\n                    return ").append(target).append(";\n                }\n");
+            if (!isFinal) {
+                out.append("\n                @Override\n                public void set").append(suffix).append("(").append(primitive).append(" value) {\n                    ").append(target).append(" = value;\n                }\n");
+            }
+        }
+        out.append("            };\n");
+    }
+
+    /**
+     * Mirrors Type#getTypeName() of the reflected generic field type at compile time.
+     */
+    private String typeNameOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.ROOT);
+        if (type instanceof ArrayType array) return this.typeNameOf(array.getComponentType()) + "[]";
+        if (type instanceof TypeVariable variable) return variable.asElement().getSimpleName().toString();
+        if (type instanceof WildcardType wildcard) {
+            if (wildcard.getSuperBound() != null) return "? super " + this.typeNameOf(wildcard.getSuperBound());
+            var bound = wildcard.getExtendsBound();
+            if (bound == null || (bound instanceof DeclaredType declared && ((TypeElement) declared.asElement()).getQualifiedName().contentEquals("java.lang.Object"))) return "?";
+            return "? extends " + this.typeNameOf(bound);
+        }
+        if (!(type instanceof DeclaredType declared)) return type.toString();
+        var element = (TypeElement) declared.asElement();
+        var out = new StringBuilder();
+        // Inner classes of parameterized types are named after their owner type, like ParameterizedType#getTypeName() does
+        if (declared.getEnclosingType() instanceof DeclaredType owner && !owner.getTypeArguments().isEmpty()) {
+            out.append(this.typeNameOf(owner)).append('$').append(element.getSimpleName());
+        } else {
+            out.append(this.processingEnv.getElementUtils().getBinaryName(element));
+        }
+        var arguments = declared.getTypeArguments();
+        if (!arguments.isEmpty()) {
+            out.append('<');
+            for (int i = 0; i < arguments.size(); i++) {
+                out.append(i == 0 ? "" : ", ").append(this.typeNameOf(arguments.get(i)));
+            }
+            out.append('>');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Mirrors ConfigCodecs#codecTypeOf(Type) of the reflected generic field type at compile time.
+     */
+    private String codecTypeOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.ROOT);
+        // Upper bound of the wildcard, which is Object for unbounded and super-bounded ones
+        if (type instanceof WildcardType wildcard) return wildcard.getExtendsBound() == null ? "object" : this.codecTypeOf(wildcard.getExtendsBound());
+        // Only arrays of non-generic types are reflected as classes, all others as generic array types
+        if (type instanceof ArrayType array) return this.isReflectedAsClass(array) ? this.simpleNameOf(array) : "?";
+        if (!(type instanceof DeclaredType declared)) return "?";
+        var out = new StringBuilder(declared.asElement().getSimpleName().toString().toLowerCase(Locale.ROOT));
+        var arguments = declared.getTypeArguments();
+        if (arguments.isEmpty()) return out.toString();
+        out.append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+            out.append(i == 0 ? "" : ",").append(this.codecTypeOf(arguments.get(i)));
+        }
+        return out.append('>').toString();
+    }
+
+    private boolean isReflectedAsClass(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return true;
+        if (type instanceof ArrayType array) return this.isReflectedAsClass(array.getComponentType());
+        return type instanceof DeclaredType declared && declared.getTypeArguments().isEmpty()
+                && !(declared.getEnclosingType() instanceof DeclaredType owner && !owner.getTypeArguments().isEmpty());
+    }
+
+    private String simpleNameOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.ROOT);
+        if (type instanceof ArrayType array) return this.simpleNameOf(array.getComponentType()) + "[]";
+        return ((DeclaredType) type).asElement().getSimpleName().toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Mirrors JsonValueFormat#of(Type) at compile time, returning the name of the format or null if there is none.
+     */
+    private String valueFormatOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.ROOT);
+        if (type instanceof WildcardType wildcard) return wildcard.getExtendsBound() == null ? null : this.valueFormatOf(wildcard.getExtendsBound());
+        if (!(type instanceof DeclaredType declared)) return null;
+        var element = (TypeElement) declared.asElement();
+        var arguments = declared.getTypeArguments();
+        if (arguments.isEmpty()) return ConfigBindingProcessor.VALUE_KINDS.get(element.getQualifiedName().toString());
+        var types = this.processingEnv.getTypeUtils();
+        var arrayList = this.processingEnv.getElementUtils().getTypeElement("java.util.ArrayList");
+        if (arguments.size() == 1 && element.getSimpleName().toString().toLowerCase(Locale.ROOT).contains("list")
+                && types.isAssignable(types.erasure(arrayList.asType()), types.erasure(declared))) {
+            String elementFormat = this.valueFormatOf(arguments.get(0));
+            return elementFormat == null ? null : "list<" + elementFormat + ">";
+        }
+        if (arguments.size() == 2 && element.getQualifiedName().contentEquals("java.util.Map")) {
+            // JsonOps only supports string keys
+            String elementFormat = this.valueFormatOf(arguments.get(1));
+            return !"string".equals(this.valueFormatOf(arguments.get(0))) || elementFormat == null ? null : "map<" + elementFormat + ">";
+        }
+        return null;
+    }
+
+    /**
+     * Collects the public fields in the same order as Class#getFields(): declared fields first, then those of the direct
+     * superinterfaces and finally those of the superclass, each recursively. Fields reachable through several paths are kept at their first position.
+     */
+    private void collectFields(TypeElement type, Set<VariableElement> out) {
+        boolean isInterface = type.getKind().isInterface();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            // Interface fields are implicitly public
+            if (isInterface || field.getModifiers().contains(Modifier.PUBLIC)) out.add(field);
+        }
+        for (TypeMirror superinterface : type.getInterfaces()) {
+            if (superinterface.getKind() == TypeKind.DECLARED) this.collectFields((TypeElement) ((DeclaredType) superinterface).asElement(), out);
+        }
+        TypeElement superclass = this.superclassOf(type);
+        if (superclass != null) this.collectFields(superclass, out);
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        var element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private boolean hasAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) return true;
+        }
+        return false;
+    }
+
+    private String annotationValue(Element element, String annotationType, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) continue;
+            for (var entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(name)) return (String) entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    // Must produce the same text as the header rendering in SimpleConfig
+    private static String renderHeader(String section, String comment) {
+        var out = new StringBuilder();
+        if (section != null) {
+            String sectionLength = "=".repeat(section.length());
+            out.append("# ").append(sectionLength).append("\n");
+            out.append("# ").append(section).append("\n");
+            out.append("# ").append(sectionLength).append("\n");
+        }
+        if (comment != null) {
+            for (String s : comment.split("\n")) {
+                out.append("# ").append(s).append("\n");
+            }
+        }
+        return out.toString();
+    }
+
+    private static String literal(String value) {
+        if (value == null) return "null";
+        var out = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}